@@ -0,0 +1,17 @@
+package com.awesome.gic.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-thread round robin over the ledger's accounts, so threads spread over different accounts.
+ */
+@State(Scope.Thread)
+public class AccountCursor {
+    private int next = (int) Thread.currentThread().getId();
+
+    public String nextAccount(LedgerState ledger) {
+        next = (next + 1) % ledger.accountIds.length;
+        return ledger.accountIds[next];
+    }
+}
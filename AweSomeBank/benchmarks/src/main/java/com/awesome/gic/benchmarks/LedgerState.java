@@ -0,0 +1,87 @@
+package com.awesome.gic.benchmarks;
+
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A populated bank shared by all benchmark threads: accounts x transactionsPerAccount postings
+ * and a table of interest rules, spread evenly over several years. It is built once per trial,
+ * so benchmarks using it must only read it; posting benchmarks use PostingState instead.
+ */
+@State(Scope.Benchmark)
+public class LedgerState {
+    public static final LocalDate FIRST_DATE = LocalDate.of(2015, 1, 1);
+    public static final int HISTORY_DAYS = 10 * 365;
+
+    @Param({"10", "100", "1000"})
+    public int accounts;
+
+    @Param({"100", "10000"})
+    public int transactionsPerAccount;
+
+    @Param({"10", "1000"})
+    public int rules;
+
+    public AccountServiceImpl accountService;
+    public InterestRuleServiceImpl interestRuleService;
+    public TransactionServiceImpl transactionService;
+    public String[] accountIds;
+    public LocalDate lastDate;
+    // A month in the middle of the history and the one after the last posting
+    public String middleYearMonth;
+    public LocalDate middleMonthStart;
+    public LocalDate middleMonthEnd;
+    public String nextDateStr;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        populate();
+    }
+
+    /**
+     * Builds a fresh bank from the current parameter values.
+     */
+    public void populate() throws Exception {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        accountService = new AccountServiceImpl();
+        interestRuleService = new InterestRuleServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+
+        for (int i = 0; i < rules; i++) {
+            LocalDate date = FIRST_DATE.plusDays((long) i * HISTORY_DAYS / rules);
+            interestRuleService.addInterestRule(date.format(formatter), "R" + i, 1.0 + (i % 300) / 100.0);
+        }
+
+        accountIds = new String[accounts];
+        for (int a = 0; a < accounts; a++) {
+            accountIds[a] = "AC" + a;
+        }
+
+        // Post day by day across all accounts, withdrawing a little every third posting
+        for (int t = 0; t < transactionsPerAccount; t++) {
+            String dateStr = FIRST_DATE.plusDays((long) t * HISTORY_DAYS / transactionsPerAccount).format(formatter);
+            for (String accountId : accountIds) {
+                if (t % 3 == 2) {
+                    transactionService.createTransaction(dateStr, accountId, "W", 25.0);
+                } else {
+                    transactionService.createTransaction(dateStr, accountId, "D", 100.0);
+                }
+            }
+        }
+
+        lastDate = FIRST_DATE.plusDays(HISTORY_DAYS);
+        middleMonthStart = FIRST_DATE.plusDays(HISTORY_DAYS / 2).withDayOfMonth(1);
+        middleMonthEnd = middleMonthStart.plusMonths(1).minusDays(1);
+        middleYearMonth = middleMonthStart.format(DateTimeFormatter.ofPattern("yyyyMM"));
+        nextDateStr = lastDate.plusDays(1).format(formatter);
+    }
+}
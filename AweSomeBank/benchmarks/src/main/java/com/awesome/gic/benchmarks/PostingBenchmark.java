@@ -0,0 +1,38 @@
+package com.awesome.gic.benchmarks;
+
+import com.awesome.gic.models.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of TransactionService.createTransaction, appending deposits after the existing history.
+ * The ledger is rebuilt before every iteration, so each one starts from the same history.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostingBenchmark {
+
+    @Benchmark
+    public Transaction createTransaction(PostingState state, AccountCursor cursor) throws Exception {
+        LedgerState ledger = state.ledger;
+        return ledger.transactionService.createTransaction(ledger.nextDateStr, cursor.nextAccount(ledger), "D", 1.0);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Transaction createTransactionMultiThreaded(PostingState state, AccountCursor cursor) throws Exception {
+        LedgerState ledger = state.ledger;
+        return ledger.transactionService.createTransaction(ledger.nextDateStr, cursor.nextAccount(ledger), "D", 1.0);
+    }
+}
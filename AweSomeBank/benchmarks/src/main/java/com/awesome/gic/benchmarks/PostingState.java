@@ -0,0 +1,33 @@
+package com.awesome.gic.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A LedgerState rebuilt before every iteration, for benchmarks that post into it. Each
+ * iteration then posts against the same starting history instead of one that keeps growing
+ * with every posting of the earlier iterations.
+ */
+@State(Scope.Benchmark)
+public class PostingState {
+    @Param({"10", "100", "1000"})
+    public int accounts;
+
+    @Param({"100", "1000"})
+    public int transactionsPerAccount;
+
+    public LedgerState ledger;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        ledger = new LedgerState();
+        ledger.accounts = accounts;
+        ledger.transactionsPerAccount = transactionsPerAccount;
+        // Posting never consults interest rules
+        ledger.rules = 10;
+        ledger.populate();
+    }
+}
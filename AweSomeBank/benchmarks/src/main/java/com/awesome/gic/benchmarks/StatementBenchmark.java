@@ -0,0 +1,63 @@
+package com.awesome.gic.benchmarks;
+
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of statement generation, interest calculation and rule lookup for a month
+ * in the middle of the history.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+
+    @Benchmark
+    public List<Statement> generateMonthlyStatement(LedgerState ledger, AccountCursor cursor) {
+        return ledger.transactionService.generateMonthlyStatement(cursor.nextAccount(ledger), ledger.middleYearMonth);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Statement> generateMonthlyStatementMultiThreaded(LedgerState ledger, AccountCursor cursor) {
+        return ledger.transactionService.generateMonthlyStatement(cursor.nextAccount(ledger), ledger.middleYearMonth);
+    }
+
+    @Benchmark
+    public long getMonthlyInterest(LedgerState ledger, AccountCursor cursor) {
+        Account account = ledger.accountService.getAccount(cursor.nextAccount(ledger));
+        return ledger.transactionService.getMonthlyInterest(account, ledger.middleMonthStart, ledger.middleMonthEnd);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long getMonthlyInterestMultiThreaded(LedgerState ledger, AccountCursor cursor) {
+        Account account = ledger.accountService.getAccount(cursor.nextAccount(ledger));
+        return ledger.transactionService.getMonthlyInterest(account, ledger.middleMonthStart, ledger.middleMonthEnd);
+    }
+
+    @Benchmark
+    public InterestRule getApplicableInterestRule(LedgerState ledger) {
+        return ledger.interestRuleService.getApplicableInterestRule(ledger.middleMonthEnd);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public InterestRule getApplicableInterestRuleMultiThreaded(LedgerState ledger) {
+        return ledger.interestRuleService.getApplicableInterestRule(ledger.middleMonthEnd);
+    }
+}
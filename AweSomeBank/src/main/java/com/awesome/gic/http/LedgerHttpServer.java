@@ -0,0 +1,326 @@
+package com.awesome.gic.http;
+
+import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.interfaces.TransactionService;
+import com.awesome.gic.models.DateCodec;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server exposing the ledger as JSON on the JDK's built-in server:
+ *
+ *   POST /transactions                 {"date": "20230601", "account": "AC001", "type": "D", "amount": 100.00}
+ *   POST /transfers                    {"date": "20230601", "from": "AC001", "to": "AC002", "amount": 25.00}
+ *   GET  /interest-rules
+ *   POST /interest-rules               {"date": "20230601", "ruleId": "RULE01", "rate": 1.95}
+ *   GET  /statements/{account}?from=YYYYMM[&to=YYYYMM]
+ *
+ * Rejected requests get a 400 with {"error": message}, the same message the console prints.
+ * Statements are streamed as a JSON array while they are generated.
+ *
+ * Each exchange runs on its own virtual thread, so thousands of slow clients do not tie up
+ * platform threads.
+ */
+public class LedgerHttpServer implements Closeable {
+    private static final int MAX_REQUEST_BYTES = 64 * 1024;
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final TransactionService transactionService;
+    private final InterestRuleService interestRuleService;
+
+    public LedgerHttpServer(InetSocketAddress address, TransactionService transactionService,
+                            InterestRuleService interestRuleService) throws IOException {
+        this.transactionService = transactionService;
+        this.interestRuleService = interestRuleService;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        server.createContext("/transactions", exchange -> handle(exchange, this::transactions));
+        server.createContext("/transfers", exchange -> handle(exchange, this::transfers));
+        server.createContext("/interest-rules", exchange -> handle(exchange, this::interestRules));
+        server.createContext("/statements/", exchange -> handle(exchange, this::statements));
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void transactions(HttpExchange exchange) throws Exception {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        Map<String, String> request = readJson(exchange);
+        String accountId = request.get("account");
+        Transaction transaction = transactionService.createTransaction(
+                required(request, "date"), required(accountId, "account"), required(request, "type"),
+                parseNumber(required(request, "amount"), "amount"));
+
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"transactionId\":");
+        Json.appendString(json, transaction.getTransactionId());
+        json.append(",\"date\":");
+        Json.appendString(json, transaction.getFormattedDate());
+        json.append(",\"account\":");
+        Json.appendString(json, accountId);
+        json.append(",\"type\":");
+        Json.appendString(json, transaction.getType());
+        json.append(",\"amount\":");
+        Json.appendCents(json, transaction.getAmountCents());
+        json.append('}');
+        send(exchange, 201, json);
+    }
+
+    private void transfers(HttpExchange exchange) throws Exception {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        Map<String, String> request = readJson(exchange);
+        Transfer transfer = transactionService.createTransfer(required(request, "date"), required(request, "from"),
+                required(request, "to"), parseNumber(required(request, "amount"), "amount"));
+
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"debitTransactionId\":");
+        Json.appendString(json, transfer.getDebit().getTransactionId());
+        json.append(",\"creditTransactionId\":");
+        Json.appendString(json, transfer.getCredit().getTransactionId());
+        json.append(",\"date\":");
+        Json.appendString(json, transfer.getDebit().getFormattedDate());
+        json.append(",\"from\":");
+        Json.appendString(json, transfer.getFromAccountId());
+        json.append(",\"to\":");
+        Json.appendString(json, transfer.getToAccountId());
+        json.append(",\"amount\":");
+        Json.appendCents(json, transfer.getDebit().getAmountCents());
+        json.append('}');
+        send(exchange, 201, json);
+    }
+
+    private void interestRules(HttpExchange exchange) throws Exception {
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST")) {
+            Map<String, String> request = readJson(exchange);
+            interestRuleService.addInterestRule(required(request, "date"), required(request, "ruleId"),
+                    parseNumber(required(request, "rate"), "rate"));
+        } else if (!method.equals("GET")) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        List<InterestRule> rules = interestRuleService.getAllInterestRules();
+        StringBuilder json = new StringBuilder(32 + rules.size() * 64);
+        json.append('[');
+        for (int i = 0; i < rules.size(); i++) {
+            InterestRule rule = rules.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"date\":");
+            Json.appendString(json, rule.getFormattedDate());
+            json.append(",\"ruleId\":");
+            Json.appendString(json, rule.getRuleId());
+            json.append(",\"rate\":").append(rule.getRate()).append('}');
+        }
+        json.append(']');
+        send(exchange, method.equals("POST") ? 201 : 200, json);
+    }
+
+    private void statements(HttpExchange exchange) throws Exception {
+        if (!exchange.getRequestMethod().equals("GET")) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+
+        String accountId = exchange.getRequestURI().getPath().substring("/statements/".length());
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String from = required(query, "from");
+        String to = query.getOrDefault("to", from);
+        if (accountId.isEmpty()) {
+            throw new IllegalArgumentException("account is required");
+        }
+        // Validated up front since the response is committed before the first line is generated
+        if (DateCodec.parseYearMonth(from) == null || DateCodec.parseYearMonth(to) == null) {
+            throw new IllegalArgumentException("Year and month should be in YYYYMM format");
+        }
+        if (from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("Start month should not be after end month");
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            StringBuilder json = new StringBuilder(8192);
+            AtomicInteger lineCount = new AtomicInteger();
+            json.append('[');
+            transactionService.streamStatements(accountId, from, to, statement -> {
+                if (lineCount.getAndIncrement() > 0) {
+                    json.append(',');
+                }
+                json.append("{\"date\":");
+                Json.appendString(json, statement.getDate());
+                json.append(",\"transactionId\":");
+                Json.appendString(json, statement.getTransactionId());
+                json.append(",\"type\":");
+                Json.appendString(json, statement.getType());
+                json.append(",\"amount\":");
+                Json.appendCents(json, statement.getAmountCents());
+                json.append(",\"balance\":");
+                Json.appendCents(json, statement.getBalanceCents());
+                json.append('}');
+                if (json.length() >= 8000) {
+                    write(body, json);
+                }
+            });
+            json.append(']');
+            write(body, json);
+        }
+    }
+
+    private interface Endpoint {
+        void serve(HttpExchange exchange) throws Exception;
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) {
+        try {
+            endpoint.serve(exchange);
+        } catch (RequestTooLargeException e) {
+            sendErrorQuietly(exchange, 413, e.getMessage());
+        } catch (IOException | UncheckedIOException e) {
+            // The client went away; nothing left to answer
+        } catch (Exception e) {
+            sendErrorQuietly(exchange, 400, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, String> readJson(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        byte[] chunk = new byte[4096];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                body.write(chunk, 0, read);
+                if (body.size() > MAX_REQUEST_BYTES) {
+                    throw new RequestTooLargeException();
+                }
+            }
+        }
+        return Json.parseObject(new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> values, String name) {
+        return required(values.get(name), name);
+    }
+
+    private static String required(String value, String name) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    private static double parseNumber(String value, String name) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " should be a number");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, StringBuilder json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder(64);
+        json.append("{\"error\":");
+        Json.appendString(json, message);
+        json.append('}');
+        send(exchange, status, json);
+    }
+
+    // Only possible while the response has not started; otherwise the connection is just closed
+    private static void sendErrorQuietly(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        try {
+            sendError(exchange, status, message);
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private static void write(OutputStream out, StringBuilder json) {
+        try {
+            out.write(json.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        json.setLength(0);
+    }
+
+    private static class RequestTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        RequestTooLargeException() {
+            super("Request body exceeds " + MAX_REQUEST_BYTES + " bytes");
+        }
+    }
+}
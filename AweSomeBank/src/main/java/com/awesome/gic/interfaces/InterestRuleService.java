@@ -8,5 +8,6 @@ import java.util.List;
 public interface InterestRuleService {
     void addInterestRule(String dateStr, String ruleId, double rate) throws Exception;
     List<InterestRule> getAllInterestRules();
+    List<InterestRule> getInterestRulesBetween(LocalDate from, LocalDate to);
     InterestRule getApplicableInterestRule(LocalDate date);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.awesome.gic.interfaces;
+
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+
+/**
+ * Receives every change accepted into the ledger. Transactions are reported while the
+ * account lock is held, so events of one account arrive in posting order.
+ */
+public interface LedgerListener {
+    default void transactionPosted(String accountId, Transaction transaction) {
+    }
+
+    /**
+     * Receives both legs of a transfer at once. By default they are reported as two postings,
+     * the debit first.
+     */
+    default void transferPosted(Transfer transfer) {
+        transactionPosted(transfer.getFromAccountId(), transfer.getDebit());
+        transactionPosted(transfer.getToAccountId(), transfer.getCredit());
+    }
+
+    default void interestRuleAdded(InterestRule rule) {
+    }
+
+    /**
+     * Returns once every change reported so far is durable. Called after the posting has
+     * released its locks, before it is acknowledged.
+     */
+    default void awaitDurable() {
+    }
+}
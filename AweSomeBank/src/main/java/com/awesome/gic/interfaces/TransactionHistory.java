@@ -0,0 +1,45 @@
+package com.awesome.gic.interfaces;
+
+import com.awesome.gic.models.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Date-ordered transaction history of one account with end-of-day balance checkpoints.
+ * Transactions on the same date stay in posting order. Implementations are not
+ * thread-safe; the owning Account synchronizes access.
+ */
+public interface TransactionHistory {
+    void add(Transaction transaction);
+    int size();
+    List<Transaction> getTransactions();
+    List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to);
+    long getBalanceCentsBefore(LocalDate date);
+
+    /**
+     * Returns the largest amount a posting dated on the given date could take out without the
+     * balance at the end of that date or any later date going negative.
+     */
+    long getWithdrawableCents(LocalDate date);
+
+    void forEachPostingBetween(LocalDate from, LocalDate to, PostingConsumer consumer);
+
+    /**
+     * Passes the checkpoint of each day between from and to (both inclusive) that has postings,
+     * in date order.
+     */
+    void forEachDayBetween(LocalDate from, LocalDate to, DayConsumer consumer);
+
+    interface PostingConsumer {
+        void accept(long epochDay, char type, long signedAmountCents);
+    }
+
+    interface DayConsumer {
+        /**
+         * Receives the balance at the end of the day and the part of the day's postings that
+         * were interest credits.
+         */
+        void acceptDay(long epochDay, long closingBalanceCents, long interestCreditedCents);
+    }
+}
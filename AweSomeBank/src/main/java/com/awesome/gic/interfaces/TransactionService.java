@@ -1,13 +1,36 @@
 package com.awesome.gic.interfaces;
 
+import com.awesome.gic.models.ImportResult;
 import com.awesome.gic.models.Statement;
 import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
 
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TransactionService {
     Transaction createTransaction(String date, String accountId, String type, double amount) throws Exception;
+
+    /**
+     * Moves the amount from one account to another atomically, as a W and a D with linked IDs.
+     */
+    Transfer createTransfer(String date, String fromAccountId, String toAccountId, double amount) throws Exception;
+
+    ImportResult importTransactions(Iterator<String> records);
     List<Statement> generateMonthlyStatement(String accountId, String yearMonth);
+
+    /**
+     * Passes the statement lines of every month from fromYearMonth to toYearMonth (both inclusive,
+     * YYYYMM) to the consumer in date order, each month followed by its interest line.
+     */
+    void streamStatements(String accountId, String fromYearMonth, String toYearMonth,
+                          Consumer<Statement> consumer) throws Exception;
     int getTransactionCount(LocalDate date);
+
+    /**
+     * Returns the account's balance in cents at the end of the given date (YYYYMMdd).
+     */
+    long balanceAsOf(String accountId, String date) throws Exception;
 }
\ No newline at end of file
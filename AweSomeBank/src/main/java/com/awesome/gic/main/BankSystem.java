@@ -1,34 +1,167 @@
 package com.awesome.gic.main;
 
+import com.awesome.gic.http.LedgerHttpServer;
 import com.awesome.gic.interfaces.AccountService;
 import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.interfaces.LedgerListener;
 import com.awesome.gic.interfaces.TransactionService;
+import com.awesome.gic.metrics.MeteredAccountService;
+import com.awesome.gic.metrics.MeteredInterestRuleService;
+import com.awesome.gic.metrics.MeteredTransactionService;
+import com.awesome.gic.metrics.MeteredTransactionServiceImpl;
+import com.awesome.gic.metrics.MetricsRegistry;
 import com.awesome.gic.models.Account;
+import com.awesome.gic.models.DateCodec;
+import com.awesome.gic.models.ImportResult;
 import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.InterestSimulationResult;
+import com.awesome.gic.models.Money;
+import com.awesome.gic.models.MonthEndCloseResult;
+import com.awesome.gic.models.SnapshotResult;
 import com.awesome.gic.models.Statement;
 import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+import com.awesome.gic.output.StatementRenderer;
+import com.awesome.gic.persistence.Journal;
+import com.awesome.gic.persistence.Snapshot;
 import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.CachingTransactionService;
 import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.InterestSimulator;
+import com.awesome.gic.services.MonthEndCloseJob;
 import com.awesome.gic.services.TransactionServiceImpl;
 
-
-import java.time.format.DateTimeFormatter;
+import javax.management.JMException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.regex.Pattern;
 
 public class BankSystem {
+    private static final int STATEMENT_CACHE_SIZE = 10_000;
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile("\\s+");
+
     private Scanner scanner;
     private AccountService accountService;
     private InterestRuleService interestRuleService;
     private TransactionService transactionService;
-    private DateTimeFormatter dateFormatter;
+    private MonthEndCloseJob monthEndCloseJob;
+    private InterestSimulator interestSimulator;
+    private Journal journal;
+    private StatementRenderer console;
+    private LedgerHttpServer httpServer;
+    private MetricsRegistry metrics;
+    private TransactionServiceImpl transactionStore;
+
+    public BankSystem() throws IOException {
+        this(null, 0);
+    }
 
-    public BankSystem() {
+    public BankSystem(Path journalPath, long journalCommitDelayMillis) throws IOException {
+        this(journalPath, journalCommitDelayMillis, null);
+    }
+
+    /**
+     * Creates the bank, recovering its state from the journal file and journaling every
+     * accepted change to it when journalPath is given. An existing snapshot file is restored
+     * first, and only the journal records written after it are replayed.
+     */
+    public BankSystem(Path journalPath, long journalCommitDelayMillis, Path snapshotPath) throws IOException {
         scanner = new Scanner(System.in);
-        accountService = new AccountServiceImpl();
-        interestRuleService = new InterestRuleServiceImpl();
-        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
-        dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        console = StatementRenderer.toConsole();
+        metrics = new MetricsRegistry();
+        AccountServiceImpl accounts = new AccountServiceImpl();
+        InterestRuleServiceImpl rules = new InterestRuleServiceImpl();
+        // The metered account service is also handed to the transaction service so account lookups made
+        // while posting are measured. Interest is timed per monthly calculation, not per rule lookup.
+        AccountService meteredAccounts = new MeteredAccountService(accounts, metrics);
+        InterestRuleService meteredRules = new MeteredInterestRuleService(rules, metrics);
+        TransactionServiceImpl transactions = new MeteredTransactionServiceImpl(meteredAccounts, rules, metrics);
+        CachingTransactionService cachedTransactions =
+                new CachingTransactionService(transactions, rules, STATEMENT_CACHE_SIZE);
+        transactions.addLedgerListener(cachedTransactions);
+        transactions.addLedgerListener(metrics);
+        rules.addLedgerListener(cachedTransactions);
+        accountService = meteredAccounts;
+        interestRuleService = meteredRules;
+        transactionService = new MeteredTransactionService(cachedTransactions, metrics);
+        monthEndCloseJob = new MonthEndCloseJob(meteredAccounts, transactions);
+        interestSimulator = new InterestSimulator(meteredAccounts);
+        transactionStore = transactions;
+
+        try {
+            metrics.registerMBeans();
+        } catch (JMException e) {
+            System.out.println("Warning: Unable to publish metrics over JMX: " + e.getMessage());
+        }
+
+        long restoredJournalRecords = 0;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            SnapshotResult result = Snapshot.restore(snapshotPath, accounts, rules, transactions,
+                    Runtime.getRuntime().availableProcessors());
+            restoredJournalRecords = result.getJournalRecordCount();
+            System.out.printf("Restored %d accounts and %d transactions from %s in %.3f s, %.0f transactions/s%n",
+                    result.getAccountCount(), result.getTransactionCount(), snapshotPath,
+                    result.getElapsedNanos() / 1_000_000_000.0, result.getTransactionsPerSecond());
+        }
+
+        if (journalPath != null) {
+            openJournal(journalPath, journalCommitDelayMillis, restoredJournalRecords, transactions, rules);
+        }
+    }
+
+    // Replays the journal records after the first skipRecords, which a snapshot already restored
+    private void openJournal(Path journalPath, long journalCommitDelayMillis, long skipRecords,
+                             TransactionServiceImpl transactions, InterestRuleServiceImpl rules) throws IOException {
+        long startTime = System.nanoTime();
+        journal = Journal.open(journalPath, journalCommitDelayMillis, new LedgerListener() {
+            private long skipped;
+
+            @Override
+            public void transactionPosted(String accountId, Transaction transaction) {
+                if (skipped < skipRecords) {
+                    skipped++;
+                    return;
+                }
+                transactions.restoreTransaction(accountId, transaction);
+            }
+
+            @Override
+            public void transferPosted(Transfer transfer) {
+                if (skipped < skipRecords) {
+                    skipped++;
+                    return;
+                }
+                transactions.restoreTransfer(transfer);
+            }
+
+            @Override
+            public void interestRuleAdded(InterestRule rule) {
+                if (skipped < skipRecords) {
+                    skipped++;
+                    return;
+                }
+                rules.restoreInterestRule(rule);
+            }
+        });
+        transactions.setWriteAheadLog(journal);
+        rules.setWriteAheadLog(journal);
+
+        System.out.printf("Recovered %d journal records from %s in %.3f s%n",
+                journal.getRecordCount(), journalPath, (System.nanoTime() - startTime) / 1_000_000_000.0);
     }
 
     public void run() {
@@ -56,6 +189,18 @@ public class BankSystem {
                 case 'P':
                     printStatement();
                     break;
+                case 'F':
+                    importTransactions();
+                    break;
+                case 'C':
+                    closeMonth();
+                    break;
+                case 'E':
+                    exportStatements();
+                    break;
+                case 'S':
+                    saveSnapshot();
+                    break;
                 case 'Q':
                     running = false;
                     System.out.println("Thank you for banking with AwesomeGIC Bank.");
@@ -67,6 +212,200 @@ public class BankSystem {
         }
 
         scanner.close();
+        shutdown();
+    }
+
+    /**
+     * Runs commands read one per line without menus or prompts, printing only statements,
+     * errors and a final summary:
+     * T <Date> <Account> <Type> <Amount>, X <Date> <From Account> <To Account> <Amount>, I <Date> <RuleId> <Rate>,
+     * P <Account> <Year><Month> [<To Year><Month>], C <Year><Month>, S <Snapshot file> and
+     * R <From Date> <To Date> <Date>:<RuleId>:<Rate>... to simulate interest under candidate rules
+     * and A <Account or *> <From Date> <To Date> to print interest earned per month.
+     * Blank lines and lines starting with # are skipped.
+     */
+    public void runScript(BufferedReader reader) throws IOException {
+        long startTime = System.nanoTime();
+        long commandCount = 0;
+        long errorCount = 0;
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            commandCount++;
+            try {
+                runCommand(FIELD_SEPARATOR.split(line));
+            } catch (Exception e) {
+                errorCount++;
+                console.writeText("Line " + lineNumber + ": Error: " + e.getMessage() + "\n");
+            }
+        }
+
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        console.writeText(String.format("Ran %d commands (%d errors) in %.3f s, %.0f commands/s%n",
+                commandCount, errorCount, seconds, seconds > 0 ? commandCount / seconds : 0.0));
+        console.flush();
+        shutdown();
+    }
+
+    private void runCommand(String[] fields) throws Exception {
+        String command = fields[0].toUpperCase();
+        switch (command) {
+            case "T":
+                expectFieldCount(fields, 5);
+                transactionService.createTransaction(fields[1], fields[2], fields[3], Double.parseDouble(fields[4]));
+                break;
+            case "X":
+                expectFieldCount(fields, 5);
+                transactionService.createTransfer(fields[1], fields[2], fields[3], Double.parseDouble(fields[4]));
+                break;
+            case "I":
+                expectFieldCount(fields, 4);
+                interestRuleService.addInterestRule(fields[1], fields[2], Double.parseDouble(fields[3]));
+                break;
+            case "P":
+                if (fields.length != 3 && fields.length != 4) {
+                    throw new IllegalArgumentException("Invalid input format");
+                }
+                String accountId = fields[1];
+                long linesBefore = console.getLineCount();
+                transactionService.streamStatements(accountId, fields[2], fields.length == 4 ? fields[3] : fields[2],
+                        statement -> {
+                            if (console.getLineCount() == linesBefore) {
+                                console.writeStatementHeader(accountId);
+                            }
+                            console.accept(statement);
+                        });
+                console.writeText(console.getLineCount() == linesBefore
+                        ? "No transactions found for " + accountId + "\n" : "\n");
+                break;
+            case "C":
+                expectFieldCount(fields, 2);
+                MonthEndCloseResult result = monthEndCloseJob.close(fields[1], null);
+                console.writeText(String.format("Posted interest of %.2f to %d of %d accounts for %s%n",
+                        result.getTotalInterest(), result.getPostedCount(), result.getAccountCount(), result.getYearMonth()));
+                break;
+            case "S":
+                expectFieldCount(fields, 2);
+                SnapshotResult snapshot = writeSnapshot(Paths.get(fields[1]));
+                console.writeText(String.format("Saved %d accounts and %d transactions to %s%n",
+                        snapshot.getAccountCount(), snapshot.getTransactionCount(), fields[1]));
+                break;
+            case "R":
+                if (fields.length < 4) {
+                    throw new IllegalArgumentException("Invalid input format");
+                }
+                InterestSimulationResult simulation = interestSimulator.simulate(
+                        parseCandidateRules(fields, 3), fields[1], fields[2]);
+                console.writeText(String.format("Simulated interest of %.2f across %d accounts from %s to %s in %.3f s%n",
+                        simulation.getTotalInterest(), simulation.getAccountCount(), fields[1], fields[2],
+                        simulation.getElapsedNanos() / 1_000_000_000.0));
+                break;
+            case "A":
+                expectFieldCount(fields, 4);
+                printInterestByMonth(fields[1], transactionStore.parseDate(fields[2]), transactionStore.parseDate(fields[3]));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command " + fields[0]);
+        }
+    }
+
+    // Prints one account's interest per month, or every account's total for *
+    private void printInterestByMonth(String accountId, LocalDate startDate, LocalDate endDate) throws Exception {
+        if (startDate.isAfter(endDate)) {
+            throw new Exception("Start date should not be after end date");
+        }
+
+        if (accountId.equals("*")) {
+            long total = 0;
+            console.writeText("| Account    | Interest |\n");
+            for (Account account : accountService.getAllAccounts()) {
+                long interest = 0;
+                for (long monthInterest : transactionStore.getInterestByMonth(account, startDate, endDate).values()) {
+                    interest += monthInterest;
+                }
+                total += interest;
+                console.writeText(String.format("| %-10s | %8.2f |%n", account.getAccountId(), Money.toAmount(interest)));
+            }
+            console.writeText(String.format("| Total      | %8.2f |%n%n", Money.toAmount(total)));
+            return;
+        }
+
+        Account account = accountService.getAccount(accountId);
+        if (account == null) {
+            throw new Exception("Account " + accountId + " not found");
+        }
+        long total = 0;
+        console.writeText("Account: " + accountId + "\n| Month  | Interest |\n");
+        for (Map.Entry<YearMonth, Long> month : transactionStore.getInterestByMonth(account, startDate, endDate).entrySet()) {
+            total += month.getValue();
+            console.writeText(String.format("| %d%02d | %8.2f |%n", month.getKey().getYear(),
+                    month.getKey().getMonthValue(), Money.toAmount(month.getValue())));
+        }
+        console.writeText(String.format("| Total  | %8.2f |%n%n", Money.toAmount(total)));
+    }
+
+    // Reads <Date>:<RuleId>:<Rate> candidate rules from fields[from..]
+    private static List<InterestRule> parseCandidateRules(String[] fields, int from) {
+        List<InterestRule> rules = new ArrayList<>(fields.length - from);
+        for (int i = from; i < fields.length; i++) {
+            String[] parts = fields[i].split(":");
+            LocalDate date = parts.length == 3 ? DateCodec.parseDate(parts[0]) : null;
+            if (date == null) {
+                throw new IllegalArgumentException("Candidate rules should be in <Date>:<RuleId>:<Rate> format");
+            }
+            rules.add(new InterestRule(date, parts[1], Double.parseDouble(parts[2])));
+        }
+        return rules;
+    }
+
+    private static void expectFieldCount(String[] fields, int count) {
+        if (fields.length != count) {
+            throw new IllegalArgumentException("Invalid input format");
+        }
+    }
+
+    /**
+     * Serves the JSON API on the port of the loopback interface alongside the console or script.
+     */
+    public void startHttpServer(int port) throws IOException {
+        httpServer = new LedgerHttpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                transactionService, interestRuleService);
+        httpServer.start();
+        System.out.printf("Serving the JSON API on http://localhost:%d/%n", httpServer.getPort());
+    }
+
+    /**
+     * Writes the metrics report to standard error every periodMillis.
+     */
+    public void startMetricsDump(long periodMillis) {
+        metrics.startDump(periodMillis, System.err::print);
+    }
+
+    // The server goes first so no request posts after the journal is closed
+    private void shutdown() {
+        if (httpServer != null) {
+            httpServer.close();
+        }
+        closeJournal();
+        metrics.close();
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Error: Unable to close journal: " + e.getMessage());
+        }
     }
 
     private void displayMainMenu() {
@@ -74,6 +413,10 @@ public class BankSystem {
         System.out.println("[T] Input transactions");
         System.out.println("[I] Define interest rules");
         System.out.println("[P] Print statement");
+        System.out.println("[F] Import transactions from file");
+        System.out.println("[C] Close month and post interest");
+        System.out.println("[E] Export statements to file");
+        System.out.println("[S] Save snapshot");
         System.out.println("[Q] Quit");
         System.out.print("> ");
     }
@@ -104,14 +447,8 @@ public class BankSystem {
             if (transaction != null) {
                 // Print account statement after transaction
                 Account account = accountService.getAccount(accountId);
-                System.out.println("Account: " + accountId);
-                System.out.println("| Date     | Txn Id      | Type | Amount |");
-
-                for (Transaction t : account.getTransactions()) {
-                    System.out.printf("| %s | %s | %-4s | %6.2f |\n",
-                            t.getFormattedDate(), t.getTransactionId(), t.getType(), t.getAmount());
-                }
-                System.out.println();
+                console.writeTransactions(accountId, account.getTransactions());
+                console.flush();
             }
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
@@ -158,6 +495,7 @@ public class BankSystem {
 
     private void printStatement() {
         System.out.println("Please enter account and month to generate the statement <Account> <Year><Month>");
+        System.out.println("or account and months to print a range <Account> <From Year><Month> <To Year><Month>");
         System.out.println("(or enter blank to go back to main menu):");
         System.out.print("> ");
 
@@ -168,6 +506,10 @@ public class BankSystem {
 
         try {
             String[] parts = input.split("\\s+");
+            if (parts.length == 3) {
+                printStatementRange(parts[0], parts[1], parts[2]);
+                return;
+            }
             if (parts.length != 2) {
                 throw new IllegalArgumentException("Invalid input format");
             }
@@ -175,7 +517,7 @@ public class BankSystem {
             String accountId = parts[0];
             String yearMonth = parts[1];
 
-            if (yearMonth.length() != 6 || !yearMonth.matches("\\d{6}")) {
+            if (!DateCodec.isDigits(yearMonth, 6)) {
                 throw new IllegalArgumentException("Year and month should be in YYYYMM format");
             }
 
@@ -187,25 +529,235 @@ public class BankSystem {
                 return;
             }
 
-            System.out.println("Account: " + accountId);
-            System.out.println("| Date     | Txn Id      | Type | Amount | Balance |");
-
+            console.writeStatementHeader(accountId);
             for (Statement line : statement) {
-                System.out.printf("| %s | %-11s | %-4s | %6.2f | %7.2f |\n",
-                        line.getDate(),
-                        line.getTransactionId() != null ? line.getTransactionId() : "",
-                        line.getType(),
-                        line.getAmount(),
-                        line.getBalance());
+                console.accept(line);
+            }
+            console.writeText("\n");
+            console.flush();
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    // Lines are printed as they are produced, so long ranges never sit in memory
+    private void printStatementRange(String accountId, String fromYearMonth, String toYearMonth) throws Exception {
+        long linesBefore = console.getLineCount();
+        try {
+            transactionService.streamStatements(accountId, fromYearMonth, toYearMonth, line -> {
+                if (console.getLineCount() == linesBefore) {
+                    console.writeStatementHeader(accountId);
+                }
+                console.accept(line);
+            });
+        } finally {
+            console.flush();
+        }
+
+        if (console.getLineCount() == linesBefore) {
+            System.out.println("No transactions found for the specified months.");
+            return;
+        }
+        System.out.println();
+    }
+
+    private void exportStatements() {
+        System.out.println("Please enter <Account> <From Year><Month> <To Year><Month> <File> to export one account");
+        System.out.println("or * <From Year><Month> <To Year><Month> <Directory> to export one file per account");
+        System.out.println("(or enter blank to go back to main menu):");
+        System.out.print("> ");
+
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        try {
+            String[] parts = input.split("\\s+", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid input format");
+            }
+
+            String fromYearMonth = parts[1];
+            String toYearMonth = parts[2];
+            Path path = Paths.get(parts[3]);
+
+            long startTime = System.nanoTime();
+            long lineCount = 0;
+            int accountCount = 0;
+            if (parts[0].equals("*")) {
+                for (Account account : accountService.getAllAccounts()) {
+                    String name = account.getAccountId() + "-" + fromYearMonth + "-" + toYearMonth;
+                    try (StatementRenderer renderer = StatementRenderer.toDirectory(path, name)) {
+                        lineCount += exportStatement(renderer, account.getAccountId(), fromYearMonth, toYearMonth);
+                    }
+                    accountCount++;
+                }
+            } else {
+                try (StatementRenderer renderer = StatementRenderer.toFile(path)) {
+                    lineCount += exportStatement(renderer, parts[0], fromYearMonth, toYearMonth);
+                }
+                accountCount++;
+            }
+
+            System.out.printf("Exported %d statement lines for %d accounts to %s in %.3f s%n",
+                    lineCount, accountCount, path, (System.nanoTime() - startTime) / 1_000_000_000.0);
+            System.out.println();
+        } catch (Exception e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private long exportStatement(StatementRenderer renderer, String accountId, String fromYearMonth,
+                                 String toYearMonth) throws Exception {
+        renderer.writeStatementHeader(accountId);
+        transactionService.streamStatements(accountId, fromYearMonth, toYearMonth, renderer);
+        return renderer.getLineCount();
+    }
+
+    private void saveSnapshot() {
+        System.out.println("Please enter the path of the snapshot file to write");
+        System.out.println("(or enter blank to go back to main menu):");
+        System.out.print("> ");
+
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        Path path = Paths.get(input);
+        try {
+            SnapshotResult result = writeSnapshot(path);
+            System.out.printf("Saved %d accounts and %d transactions (%d bytes) to %s in %.3f s%n",
+                    result.getAccountCount(), result.getTransactionCount(), result.getSizeBytes(), path,
+                    result.getElapsedNanos() / 1_000_000_000.0);
+            System.out.println();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error: Unable to write " + path + ": " + e.getMessage());
+        }
+    }
+
+    // Records how much of the journal the snapshot covers, so a restore replays only the rest.
+    // The counted records are forced before the snapshot is written, so they survive a crash after it.
+    private SnapshotResult writeSnapshot(Path path) throws IOException {
+        return Snapshot.write(path, accountService, interestRuleService, transactionStore, () -> {
+            if (journal == null) {
+                return 0;
             }
+            long recordCount = journal.getRecordCount();
+            journal.sync();
+            return recordCount;
+        });
+    }
+
+    private void importTransactions() {
+        System.out.println("Please enter the path of a file with one <Date> <Account> <Type> <Amount> record per line");
+        System.out.println("(or enter blank to go back to main menu):");
+        System.out.print("> ");
+
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        Path path = Paths.get(input);
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            ImportResult result = transactionService.importTransactions(reader.lines().iterator());
+
+            for (ImportResult.Rejection rejection : result.getRejections()) {
+                System.out.println("Line " + rejection.getLineNumber() + " rejected: " + rejection.getReason()
+                        + " [" + rejection.getRecord() + "]");
+            }
+            int unlisted = result.getRejectedCount() - result.getRejections().size();
+            if (unlisted > 0) {
+                System.out.println("... and " + unlisted + " more rejected");
+            }
+            System.out.printf("Imported %d of %d records (%d rejected) in %.3f s, %.0f records/s%n",
+                    result.getAcceptedCount(),
+                    result.getTotalCount(),
+                    result.getRejectedCount(),
+                    result.getElapsedNanos() / 1_000_000_000.0,
+                    result.getRecordsPerSecond());
+            System.out.println();
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Error: Unable to read " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void closeMonth() {
+        System.out.println("Please enter the month to close and post interest for all accounts <Year><Month>");
+        System.out.println("(or enter blank to go back to main menu):");
+        System.out.print("> ");
+
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        try {
+            MonthEndCloseResult result = monthEndCloseJob.close(input, (closed, total) ->
+                    System.out.printf("Closed %d of %d accounts%n", closed, total));
+
+            System.out.printf("Posted interest of %.2f to %d of %d accounts for %s in %.3f s, %.0f accounts/s%n",
+                    result.getTotalInterest(),
+                    result.getPostedCount(),
+                    result.getAccountCount(),
+                    result.getYearMonth(),
+                    result.getElapsedNanos() / 1_000_000_000.0,
+                    result.getAccountsPerSecond());
             System.out.println();
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
         }
     }
 
-    public static void main(String[] args) {
-        BankSystem aweSomeGicBank = new BankSystem();
-        aweSomeGicBank.run();
+    public static void main(String[] args) throws IOException {
+        Path journalPath = null;
+        long journalCommitDelayMillis = 0;
+        boolean scripted = false;
+        int httpPort = -1;
+        long metricsDumpMillis = 0;
+        Path snapshotPath = null;
+        Path scriptPath = null;
+
+        for (String arg : args) {
+            if (arg.startsWith("--journal=")) {
+                journalPath = Paths.get(arg.substring("--journal=".length()));
+            } else if (arg.startsWith("--journal-commit-delay-ms=")) {
+                journalCommitDelayMillis = Long.parseLong(arg.substring("--journal-commit-delay-ms=".length()));
+            } else if (arg.startsWith("--http=")) {
+                httpPort = Integer.parseInt(arg.substring("--http=".length()));
+            } else if (arg.startsWith("--snapshot=")) {
+                snapshotPath = Paths.get(arg.substring("--snapshot=".length()));
+            } else if (arg.startsWith("--metrics-dump-ms=")) {
+                metricsDumpMillis = Long.parseLong(arg.substring("--metrics-dump-ms=".length()));
+            } else if (arg.equals("--script")) {
+                scripted = true;
+            } else if (arg.startsWith("--script=")) {
+                scripted = true;
+                scriptPath = Paths.get(arg.substring("--script=".length()));
+            } else {
+                System.out.println("Unknown option: " + arg);
+                return;
+            }
+        }
+
+        BankSystem aweSomeGicBank = new BankSystem(journalPath, journalCommitDelayMillis, snapshotPath);
+        if (httpPort >= 0) {
+            aweSomeGicBank.startHttpServer(httpPort);
+        }
+        if (metricsDumpMillis > 0) {
+            aweSomeGicBank.startMetricsDump(metricsDumpMillis);
+        }
+        if (!scripted) {
+            aweSomeGicBank.run();
+            return;
+        }
+
+        try (BufferedReader reader = scriptPath != null
+                ? Files.newBufferedReader(scriptPath, StandardCharsets.UTF_8)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            aweSomeGicBank.runScript(reader);
+        }
     }
 }
\ No newline at end of file
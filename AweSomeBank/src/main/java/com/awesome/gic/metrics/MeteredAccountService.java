@@ -0,0 +1,47 @@
+package com.awesome.gic.metrics;
+
+import com.awesome.gic.interfaces.AccountService;
+import com.awesome.gic.models.Account;
+
+import java.util.List;
+
+/**
+ * Records the latency of every call to the wrapped AccountService.
+ */
+public class MeteredAccountService implements AccountService {
+    private final AccountService delegate;
+    private final OperationMetrics getAccount;
+    private final OperationMetrics createAccount;
+    private final OperationMetrics getAllAccounts;
+
+    public MeteredAccountService(AccountService delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.getAccount = registry.operation("getAccount");
+        this.createAccount = registry.operation("createAccount");
+        this.getAllAccounts = registry.operation("getAllAccounts");
+    }
+
+    @Override
+    public Account getAccount(String accountId) {
+        long start = System.nanoTime();
+        Account account = delegate.getAccount(accountId);
+        getAccount.record(start);
+        return account;
+    }
+
+    @Override
+    public Account createAccount(String accountId) {
+        long start = System.nanoTime();
+        Account account = delegate.createAccount(accountId);
+        createAccount.record(start);
+        return account;
+    }
+
+    @Override
+    public List<Account> getAllAccounts() {
+        long start = System.nanoTime();
+        List<Account> accounts = delegate.getAllAccounts();
+        getAllAccounts.record(start);
+        return accounts;
+    }
+}
@@ -0,0 +1,63 @@
+package com.awesome.gic.metrics;
+
+import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.models.InterestRule;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Records the latency of every call to the wrapped InterestRuleService and counts rules
+ * rejected by validation.
+ */
+public class MeteredInterestRuleService implements InterestRuleService {
+    private final InterestRuleService delegate;
+    private final OperationMetrics addInterestRule;
+    private final OperationMetrics getAllInterestRules;
+    private final OperationMetrics getInterestRulesBetween;
+    private final OperationMetrics getApplicableInterestRule;
+
+    public MeteredInterestRuleService(InterestRuleService delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.addInterestRule = registry.operation("addInterestRule");
+        this.getAllInterestRules = registry.operation("getAllInterestRules");
+        this.getInterestRulesBetween = registry.operation("getInterestRulesBetween");
+        this.getApplicableInterestRule = registry.operation("getApplicableInterestRule");
+    }
+
+    @Override
+    public void addInterestRule(String dateStr, String ruleId, double rate) throws Exception {
+        long start = System.nanoTime();
+        try {
+            delegate.addInterestRule(dateStr, ruleId, rate);
+        } catch (Exception e) {
+            addInterestRule.recordRejected(start);
+            throw e;
+        }
+        addInterestRule.record(start);
+    }
+
+    @Override
+    public List<InterestRule> getAllInterestRules() {
+        long start = System.nanoTime();
+        List<InterestRule> rules = delegate.getAllInterestRules();
+        getAllInterestRules.record(start);
+        return rules;
+    }
+
+    @Override
+    public List<InterestRule> getInterestRulesBetween(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        List<InterestRule> rules = delegate.getInterestRulesBetween(from, to);
+        getInterestRulesBetween.record(start);
+        return rules;
+    }
+
+    @Override
+    public InterestRule getApplicableInterestRule(LocalDate date) {
+        long start = System.nanoTime();
+        InterestRule rule = delegate.getApplicableInterestRule(date);
+        getApplicableInterestRule.record(start);
+        return rule;
+    }
+}
@@ -0,0 +1,136 @@
+package com.awesome.gic.metrics;
+
+import com.awesome.gic.interfaces.TransactionService;
+import com.awesome.gic.models.ImportResult;
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Records the latency of every call to the wrapped TransactionService and counts postings
+ * rejected by validation.
+ */
+public class MeteredTransactionService implements TransactionService {
+    private final TransactionService delegate;
+    private final OperationMetrics createTransaction;
+    private final OperationMetrics createTransfer;
+    private final OperationMetrics importTransactions;
+    private final OperationMetrics generateMonthlyStatement;
+    private final OperationMetrics streamStatements;
+    private final OperationMetrics getTransactionCount;
+    private final OperationMetrics balanceAsOf;
+
+    public MeteredTransactionService(TransactionService delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        this.createTransaction = registry.operation("createTransaction");
+        this.createTransfer = registry.operation("createTransfer");
+        this.importTransactions = registry.operation("importTransactions");
+        this.generateMonthlyStatement = registry.operation("generateMonthlyStatement");
+        this.streamStatements = registry.operation("streamStatements");
+        this.getTransactionCount = registry.operation("getTransactionCount");
+        this.balanceAsOf = registry.operation("balanceAsOf");
+    }
+
+    @Override
+    public Transaction createTransaction(String date, String accountId, String type, double amount) throws Exception {
+        long start = System.nanoTime();
+        Transaction transaction;
+        try {
+            transaction = delegate.createTransaction(date, accountId, type, amount);
+        } catch (Exception e) {
+            createTransaction.recordRejected(start);
+            throw e;
+        }
+        createTransaction.record(start);
+        return transaction;
+    }
+
+    @Override
+    public Transfer createTransfer(String date, String fromAccountId, String toAccountId, double amount) throws Exception {
+        long start = System.nanoTime();
+        Transfer transfer;
+        try {
+            transfer = delegate.createTransfer(date, fromAccountId, toAccountId, amount);
+        } catch (Exception e) {
+            createTransfer.recordRejected(start);
+            throw e;
+        }
+        createTransfer.record(start);
+        return transfer;
+    }
+
+    /**
+     * Records the whole import as one call; its rejected records add to the rejection count.
+     */
+    @Override
+    public ImportResult importTransactions(Iterator<String> records) {
+        long start = System.nanoTime();
+        ImportResult result = delegate.importTransactions(records);
+        importTransactions.record(start);
+        importTransactions.addRejected(result.getRejectedCount());
+        return result;
+    }
+
+    @Override
+    public List<Statement> generateMonthlyStatement(String accountId, String yearMonth) {
+        long start = System.nanoTime();
+        List<Statement> statement = delegate.generateMonthlyStatement(accountId, yearMonth);
+        generateMonthlyStatement.record(start);
+        return statement;
+    }
+
+    /**
+     * Records the time spent producing the statement lines, excluding the time the consumer
+     * takes to handle them, e.g. writing them to a file or a socket.
+     */
+    @Override
+    public void streamStatements(String accountId, String fromYearMonth, String toYearMonth,
+                                 Consumer<Statement> consumer) throws Exception {
+        long[] consumerNanos = new long[1];
+        Consumer<Statement> timedConsumer = statement -> {
+            long consumerStart = System.nanoTime();
+            try {
+                consumer.accept(statement);
+            } finally {
+                consumerNanos[0] += System.nanoTime() - consumerStart;
+            }
+        };
+
+        long start = System.nanoTime();
+        try {
+            delegate.streamStatements(accountId, fromYearMonth, toYearMonth, timedConsumer);
+        } catch (Exception e) {
+            streamStatements.recordRejected(start + consumerNanos[0]);
+            throw e;
+        }
+        // Moving the start forward by the consumer's time leaves only the producing time
+        streamStatements.record(start + consumerNanos[0]);
+    }
+
+    @Override
+    public int getTransactionCount(LocalDate date) {
+        long start = System.nanoTime();
+        int count = delegate.getTransactionCount(date);
+        getTransactionCount.record(start);
+        return count;
+    }
+
+    @Override
+    public long balanceAsOf(String accountId, String date) throws Exception {
+        long start = System.nanoTime();
+        long balance;
+        try {
+            balance = delegate.balanceAsOf(accountId, date);
+        } catch (Exception e) {
+            balanceAsOf.recordRejected(start);
+            throw e;
+        }
+        balanceAsOf.record(start);
+        return balance;
+    }
+}
@@ -0,0 +1,41 @@
+package com.awesome.gic.metrics;
+
+import com.awesome.gic.interfaces.AccountService;
+import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.services.TransactionServiceImpl;
+
+import java.time.LocalDate;
+
+/**
+ * A TransactionServiceImpl that records the latency of each monthly interest calculation and
+ * posting as one call, rather than timing every rule lookup made inside it.
+ */
+public class MeteredTransactionServiceImpl extends TransactionServiceImpl {
+    private final OperationMetrics getMonthlyInterest;
+    private final OperationMetrics postMonthlyInterest;
+
+    public MeteredTransactionServiceImpl(AccountService accountService, InterestRuleService interestRuleService,
+                                         MetricsRegistry registry) {
+        super(accountService, interestRuleService);
+        this.getMonthlyInterest = registry.operation("getMonthlyInterest");
+        this.postMonthlyInterest = registry.operation("postMonthlyInterest");
+    }
+
+    @Override
+    public Transaction postMonthlyInterest(Account account, LocalDate startOfMonth, LocalDate endOfMonth) {
+        long start = System.nanoTime();
+        Transaction transaction = super.postMonthlyInterest(account, startOfMonth, endOfMonth);
+        postMonthlyInterest.record(start);
+        return transaction;
+    }
+
+    @Override
+    public long getMonthlyInterest(Account account, LocalDate startOfMonth, LocalDate endOfMonth) {
+        long start = System.nanoTime();
+        long interest = super.getMonthlyInterest(account, startOfMonth, endOfMonth);
+        getMonthlyInterest.record(start);
+        return interest;
+    }
+}
@@ -0,0 +1,219 @@
+package com.awesome.gic.metrics;
+
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.models.Transaction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Named operation metrics shared by the metered service decorators. Registered as a ledger
+ * listener it also counts postings per account to spot hot accounts. Operations can be published as JMX MXBeans under
+ * com.awesome.gic:type=ServiceMetrics and dumped as text periodically.
+ *
+ * Posting counts are kept for a bounded number of accounts. Once twice TRACKED_ACCOUNTS
+ * accounts are counted, all but the TRACKED_ACCOUNTS busiest are dropped and start again
+ * from zero if they post again, so the busiest accounts are found without holding a counter
+ * for every account in the bank. Dropping them runs on the registry's background thread,
+ * never on the posting thread, which reports postings while it holds the account lock.
+ */
+public class MetricsRegistry implements LedgerListener, Closeable {
+    public static final String JMX_DOMAIN = "com.awesome.gic";
+    public static final int TRACKED_ACCOUNTS = 4096;
+
+    private static final Comparator<Map.Entry<String, Long>> BY_COUNT = Map.Entry.comparingByValue();
+
+    private final ConcurrentMap<String, OperationMetrics> operations;
+    private final ConcurrentMap<String, LongAdder> accountPostings;
+    private final AtomicBoolean pruning;
+    private final List<ObjectName> registeredNames;
+    // Runs the dump and pruning; created on first use
+    private ScheduledExecutorService background;
+    private boolean dumping;
+    private boolean closed;
+
+    public MetricsRegistry() {
+        this.operations = new ConcurrentSkipListMap<>();
+        this.accountPostings = new ConcurrentHashMap<>();
+        this.pruning = new AtomicBoolean();
+        this.registeredNames = new ArrayList<>();
+    }
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    public Collection<OperationMetrics> getOperations() {
+        return operations.values();
+    }
+
+    @Override
+    public void transactionPosted(String accountId, Transaction transaction) {
+        LongAdder count = accountPostings.get(accountId);
+        if (count == null) {
+            count = accountPostings.computeIfAbsent(accountId, id -> new LongAdder());
+            if (accountPostings.size() > 2 * TRACKED_ACCOUNTS && pruning.compareAndSet(false, true)) {
+                schedulePrune();
+            }
+        }
+        count.increment();
+    }
+
+    /**
+     * Returns up to limit account IDs with their posting counts, busiest first.
+     */
+    public List<Map.Entry<String, Long>> getHotAccounts(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Keep only the limit busiest seen so far, least busy at the head
+        PriorityQueue<Map.Entry<String, Long>> busiest = new PriorityQueue<>(Math.min(limit, accountPostings.size()) + 1, BY_COUNT);
+        for (Map.Entry<String, LongAdder> entry : accountPostings.entrySet()) {
+            long count = entry.getValue().sum();
+            if (busiest.size() < limit || count > busiest.peek().getValue()) {
+                busiest.add(Map.entry(entry.getKey(), count));
+                if (busiest.size() > limit) {
+                    busiest.poll();
+                }
+            }
+        }
+
+        List<Map.Entry<String, Long>> counts = new ArrayList<>(busiest);
+        counts.sort(BY_COUNT.reversed());
+        return counts;
+    }
+
+    private synchronized void schedulePrune() {
+        if (closed) {
+            // Nothing runs in the background any more, so stay bounded the slow way
+            prune();
+            return;
+        }
+        background().execute(this::prune);
+    }
+
+    // Drops all but the busiest tracked accounts while postings keep counting; the caller has
+    // set pruning. Goes again if enough accounts were added meanwhile, as their postings could
+    // not schedule another prune.
+    private void prune() {
+        do {
+            try {
+                Set<String> keep = new HashSet<>();
+                for (Map.Entry<String, Long> entry : getHotAccounts(TRACKED_ACCOUNTS)) {
+                    keep.add(entry.getKey());
+                }
+                accountPostings.keySet().retainAll(keep);
+            } finally {
+                pruning.set(false);
+            }
+        } while (accountPostings.size() > 2 * TRACKED_ACCOUNTS && pruning.compareAndSet(false, true));
+    }
+
+    private ScheduledExecutorService background() {
+        if (background == null) {
+            background = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return background;
+    }
+
+    /**
+     * Publishes every operation created so far as an MXBean on the platform MBean server,
+     * replacing beans of the same name left by an earlier registry.
+     */
+    public synchronized void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (OperationMetrics metrics : operations.values()) {
+            ObjectName name = new ObjectName(JMX_DOMAIN + ":type=ServiceMetrics,name=" + ObjectName.quote(metrics.getName()));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+            registeredNames.add(name);
+        }
+    }
+
+    /**
+     * Passes formatReport to the consumer every periodMillis on a daemon thread.
+     */
+    public synchronized void startDump(long periodMillis, Consumer<String> out) {
+        if (dumping) {
+            throw new IllegalStateException("Metrics dump already started");
+        }
+        if (closed) {
+            throw new IllegalStateException("Metrics registry is closed");
+        }
+        dumping = true;
+        background().scheduleAtFixedRate(() -> out.accept(formatReport()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public String formatReport() {
+        StringBuilder report = new StringBuilder(1024);
+        report.append(String.format("%-28s %10s %9s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "rejected", "ops/s", "p50 us", "p99 us", "p999 us", "max us"));
+        for (OperationMetrics metrics : operations.values()) {
+            if (metrics.getCount() == 0) {
+                continue;
+            }
+            report.append(String.format("%-28s %10d %9d %10.0f %10.1f %10.1f %10.1f %10.1f%n",
+                    metrics.getName(), metrics.getCount(), metrics.getRejectedCount(),
+                    metrics.getThroughputPerSecond(), metrics.getP50Micros(), metrics.getP99Micros(),
+                    metrics.getP999Micros(), metrics.getMaxMicros()));
+        }
+
+        List<Map.Entry<String, Long>> hotAccounts = getHotAccounts(5);
+        if (!hotAccounts.isEmpty()) {
+            report.append("hot accounts:");
+            for (Map.Entry<String, Long> account : hotAccounts) {
+                report.append(' ').append(account.getKey()).append('=').append(account.getValue());
+            }
+            report.append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Stops the dump and unregisters the MBeans.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (background != null) {
+            background.shutdownNow();
+            background = null;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already replaced by another registry
+            }
+        }
+        registeredNames.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package com.awesome.gic.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram, call count and rejection count of one service operation.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final String name;
+    private final long createdNanos;
+    private final LatencyHistogram latency;
+    private final LongAdder rejected;
+
+    public OperationMetrics(String name) {
+        this.name = name;
+        this.createdNanos = System.nanoTime();
+        this.latency = new LatencyHistogram();
+        this.rejected = new LongAdder();
+    }
+
+    /**
+     * Records one call that started at startNanos (from System.nanoTime).
+     */
+    public void record(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records one call that started at startNanos and was rejected.
+     */
+    public void recordRejected(long startNanos) {
+        record(startNanos);
+        rejected.increment();
+    }
+
+    public void addRejected(long count) {
+        rejected.add(count);
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the average number of calls per second since the metrics were created.
+     */
+    @Override
+    public double getThroughputPerSecond() {
+        long elapsedNanos = System.nanoTime() - createdNanos;
+        return elapsedNanos <= 0 ? 0.0 : getCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        return latency.getMeanNanos() / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latency.getValueAtPercentile(0.50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latency.getValueAtPercentile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latency.getValueAtPercentile(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latency.getMaxNanos() / 1000.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.awesome.gic.metrics;
+
+/**
+ * JMX view of one service operation. Latencies are in microseconds.
+ */
+public interface OperationMetricsMXBean {
+    String getName();
+    long getCount();
+    long getRejectedCount();
+    double getThroughputPerSecond();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
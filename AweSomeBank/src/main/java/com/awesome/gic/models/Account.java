@@ -1,44 +1,115 @@
 package com.awesome.gic.models;
 
-import java.util.ArrayList;
+import com.awesome.gic.interfaces.TransactionHistory;
+
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * A bank account and its transaction history. All access is synchronized on the
+ * account itself, which callers also use to make validate-and-post sequences atomic.
+ */
 public class Account {
+    private static final AtomicLong NEXT_LOCK_ORDER = new AtomicLong();
+
+    private final long lockOrder = NEXT_LOCK_ORDER.getAndIncrement();
     private String accountId;
-    private double balance;
-    private List<Transaction> transactions;
+    private long balanceCents;
+    private TransactionHistory history;
 
     public Account(String accountId) {
+        this(accountId, new ListTransactionHistory());
+    }
+
+    public Account(String accountId, TransactionHistory history) {
         this.accountId = accountId;
-        this.balance = 0.0;
-        this.transactions = new ArrayList<>();
+        this.balanceCents = 0;
+        this.history = history;
     }
 
     public String getAccountId() {
         return accountId;
     }
 
-    public double getBalance() {
-        return balance;
+    /**
+     * Returns the rank in which callers holding several account locks must take them, lowest
+     * first. Accounts created later rank higher.
+     */
+    public long getLockOrder() {
+        return lockOrder;
+    }
+
+    public synchronized double getBalance() {
+        return Money.toAmount(balanceCents);
     }
 
-    public void setBalance(double balance) {
-        this.balance = balance;
+    public synchronized long getBalanceCents() {
+        return balanceCents;
     }
 
-    public List<Transaction> getTransactions() {
-        return transactions;
+    public synchronized void setBalance(double balance) {
+        this.balanceCents = Money.toCents(balance);
     }
 
-    public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
+    public synchronized List<Transaction> getTransactions() {
+        return history.getTransactions();
+    }
+
+    public synchronized int getTransactionCount() {
+        return history.size();
+    }
+
+    public synchronized void addTransaction(Transaction transaction) {
+        history.add(transaction);
+        balanceCents += transaction.getSignedAmountCents();
+    }
+
+    /**
+     * Returns the balance in cents made up of all transactions dated strictly before the given date.
+     */
+    public synchronized long getBalanceCentsBefore(LocalDate date) {
+        return history.getBalanceCentsBefore(date);
+    }
+
+    /**
+     * Returns the balance in cents at the end of the given date.
+     */
+    public synchronized long getBalanceCentsAsOf(LocalDate date) {
+        return history.getBalanceCentsBefore(date.plusDays(1));
+    }
+
+    /**
+     * Returns the largest amount a withdrawal dated on the given date could take out without the
+     * balance at the end of that date or any later date going negative.
+     */
+    public synchronized long getWithdrawableCents(LocalDate date) {
+        // A balance set directly has no postings behind it, so it counts as opening every day
+        long openingBalance = balanceCents - history.getBalanceCentsBefore(LocalDate.MAX);
+        return openingBalance + history.getWithdrawableCents(date);
+    }
+
+    /**
+     * Returns the transactions dated between from and to (both inclusive), in date order.
+     */
+    public synchronized List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        return history.getTransactionsBetween(from, to);
+    }
+
+    /**
+     * Passes the epoch day, type and signed amount of each transaction dated between from and to
+     * (both inclusive) to the consumer, in date order, without materializing transactions.
+     */
+    public synchronized void forEachPostingBetween(LocalDate from, LocalDate to,
+                                                   TransactionHistory.PostingConsumer consumer) {
+        history.forEachPostingBetween(from, to, consumer);
+    }
 
-        if (transaction.getType().equalsIgnoreCase("D")) {
-            balance += transaction.getAmount();
-        } else if (transaction.getType().equalsIgnoreCase("W")) {
-            balance -= transaction.getAmount();
-        } else if (transaction.getType().equalsIgnoreCase("I")) {
-            balance += transaction.getAmount();
-        }
+    /**
+     * Passes the end-of-day balance checkpoint of each day between from and to (both inclusive)
+     * that has postings to the consumer, in date order.
+     */
+    public synchronized void forEachDayBetween(LocalDate from, LocalDate to, TransactionHistory.DayConsumer consumer) {
+        history.forEachDayBetween(from, to, consumer);
     }
 }
@@ -0,0 +1,157 @@
+package com.awesome.gic.models;
+
+import com.awesome.gic.interfaces.TransactionHistory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transaction history stored as parallel primitive arrays, about 17 bytes per posting plus
+ * 28 bytes per day with postings for its balance checkpoint.
+ * Transaction objects are only built when a caller asks for them, and the transaction ID
+ * is derived from the date and its per-day sequence number. It therefore only accepts
+ * transactions whose IDs follow the yyyyMMdd-NN format of their date.
+ */
+public class ColumnarTransactionHistory implements TransactionHistory {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int size;
+    private int[] epochDays;
+    private long[] amounts;
+    private byte[] types;
+    private int[] sequences;
+    private DailyBalances dailyBalances;
+
+    public ColumnarTransactionHistory() {
+        this.size = 0;
+        this.epochDays = new int[INITIAL_CAPACITY];
+        this.amounts = new long[INITIAL_CAPACITY];
+        this.types = new byte[INITIAL_CAPACITY];
+        this.sequences = new int[INITIAL_CAPACITY];
+        this.dailyBalances = new DailyBalances();
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        int sequence = Transaction.parseSequence(transaction.getTransactionId(), transaction.getDate());
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Transaction ID " + transaction.getTransactionId()
+                    + " is not in yyyyMMdd-NN format for its date");
+        }
+        if (transaction.getType().length() != 1) {
+            throw new IllegalArgumentException("Transaction type should be a single character");
+        }
+
+        if (size == epochDays.length) {
+            grow();
+        }
+
+        int epochDay = (int) transaction.getDate().toEpochDay();
+        int index = upperBound(epochDay);
+        int tail = size - index;
+        System.arraycopy(epochDays, index, epochDays, index + 1, tail);
+        System.arraycopy(amounts, index, amounts, index + 1, tail);
+        System.arraycopy(types, index, types, index + 1, tail);
+        System.arraycopy(sequences, index, sequences, index + 1, tail);
+
+        epochDays[index] = epochDay;
+        amounts[index] = transaction.getAmountCents();
+        types[index] = (byte) Character.toUpperCase(transaction.getType().charAt(0));
+        sequences[index] = sequence;
+        size++;
+        dailyBalances.add(epochDay, transaction.getSignedAmountCents(), types[index] == 'I');
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Transaction> getTransactions() {
+        return materialize(0, size);
+    }
+
+    @Override
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        return materialize(lowerBound(from.toEpochDay()), upperBound(to.toEpochDay()));
+    }
+
+    @Override
+    public long getBalanceCentsBefore(LocalDate date) {
+        return dailyBalances.getBalanceCentsBefore(date.toEpochDay());
+    }
+
+    @Override
+    public void forEachPostingBetween(LocalDate from, LocalDate to, PostingConsumer consumer) {
+        int toIndex = upperBound(to.toEpochDay());
+        for (int i = lowerBound(from.toEpochDay()); i < toIndex; i++) {
+            consumer.accept(epochDays[i], (char) types[i], types[i] == 'W' ? -amounts[i] : amounts[i]);
+        }
+    }
+
+    @Override
+    public long getWithdrawableCents(LocalDate date) {
+        return dailyBalances.getWithdrawableCents(date.toEpochDay());
+    }
+
+    @Override
+    public void forEachDayBetween(LocalDate from, LocalDate to, DayConsumer consumer) {
+        dailyBalances.forEachDayBetween(from.toEpochDay(), to.toEpochDay(), consumer);
+    }
+
+    private List<Transaction> materialize(int fromIndex, int toIndex) {
+        if (fromIndex >= toIndex) {
+            return Collections.emptyList();
+        }
+
+        List<Transaction> transactions = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            LocalDate date = LocalDate.ofEpochDay(epochDays[i]);
+            transactions.add(Transaction.ofCents(date, Transaction.formatId(date, sequences[i]),
+                    String.valueOf((char) types[i]), amounts[i]));
+        }
+        return Collections.unmodifiableList(transactions);
+    }
+
+    private void grow() {
+        int capacity = epochDays.length * 2;
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        types = Arrays.copyOf(types, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+    }
+
+    // Index of the first posting dated on or after the given epoch day
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index of the first posting dated after the given epoch day
+    private int upperBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] > epochDay) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,123 @@
+package com.awesome.gic.models;
+
+import com.awesome.gic.interfaces.TransactionHistory;
+
+import java.util.Arrays;
+
+/**
+ * End-of-day balance checkpoints of one account: one entry per date with postings, holding
+ * the closing balance of that day and the interest credited on it. Kept up to date as
+ * postings arrive, so balance lookups are a binary search and interest sweeps visit each
+ * day once however many postings it had. Each entry also tracks the lowest closing balance
+ * from its day on, so a back-dated withdrawal is checked against every later day without
+ * replaying them. Not thread-safe.
+ */
+class DailyBalances {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int size;
+    private int[] epochDays;
+    private long[] closingBalances;
+    private long[] interestCredits;
+    // lowestClosings[i] is the lowest of closingBalances[i..size)
+    private long[] lowestClosings;
+
+    DailyBalances() {
+        this.size = 0;
+        this.epochDays = new int[INITIAL_CAPACITY];
+        this.closingBalances = new long[INITIAL_CAPACITY];
+        this.interestCredits = new long[INITIAL_CAPACITY];
+        this.lowestClosings = new long[INITIAL_CAPACITY];
+    }
+
+    void add(int epochDay, long signedAmountCents, boolean interest) {
+        int index = lowerBound(epochDay);
+        if (index == size || epochDays[index] != epochDay) {
+            insertDay(index, epochDay);
+        }
+        if (interest) {
+            interestCredits[index] += signedAmountCents;
+        }
+
+        // The posting moves its own day's close and every later one, and so their lowest closes
+        for (int i = index; i < size; i++) {
+            closingBalances[i] += signedAmountCents;
+            lowestClosings[i] += signedAmountCents;
+        }
+        // Earlier days only see the change if it lowers the lowest close after them
+        for (int i = index - 1; i >= 0; i--) {
+            long lowest = Math.min(closingBalances[i], lowestClosings[i + 1]);
+            if (lowest == lowestClosings[i]) {
+                break;
+            }
+            lowestClosings[i] = lowest;
+        }
+    }
+
+    /**
+     * Returns the closing balance of the last day with postings before the given epoch day.
+     */
+    long getBalanceCentsBefore(long epochDay) {
+        int index = lowerBound(epochDay);
+        return index == 0 ? 0 : closingBalances[index - 1];
+    }
+
+    /**
+     * Returns the largest amount a posting dated on the given epoch day could take out without
+     * the balance at the end of that day or any later day going negative.
+     */
+    long getWithdrawableCents(long epochDay) {
+        int index = lowerBound(epochDay);
+        long openingBalance = index == 0 ? 0 : closingBalances[index - 1];
+        if (index == size) {
+            return openingBalance;
+        }
+        if (epochDays[index] == epochDay) {
+            return lowestClosings[index];
+        }
+        return Math.min(openingBalance, lowestClosings[index]);
+    }
+
+    void forEachDayBetween(long fromEpochDay, long toEpochDay, TransactionHistory.DayConsumer consumer) {
+        int toIndex = lowerBound(toEpochDay + 1);
+        for (int i = lowerBound(fromEpochDay); i < toIndex; i++) {
+            consumer.acceptDay(epochDays[i], closingBalances[i], interestCredits[i]);
+        }
+    }
+
+    private void insertDay(int index, int epochDay) {
+        if (size == epochDays.length) {
+            int capacity = size * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            closingBalances = Arrays.copyOf(closingBalances, capacity);
+            interestCredits = Arrays.copyOf(interestCredits, capacity);
+            lowestClosings = Arrays.copyOf(lowestClosings, capacity);
+        }
+
+        int tail = size - index;
+        System.arraycopy(epochDays, index, epochDays, index + 1, tail);
+        System.arraycopy(closingBalances, index, closingBalances, index + 1, tail);
+        System.arraycopy(interestCredits, index, interestCredits, index + 1, tail);
+        System.arraycopy(lowestClosings, index, lowestClosings, index + 1, tail);
+        epochDays[index] = epochDay;
+        closingBalances[index] = index == 0 ? 0 : closingBalances[index - 1];
+        interestCredits[index] = 0;
+        lowestClosings[index] = tail == 0 ? closingBalances[index] : Math.min(closingBalances[index], lowestClosings[index + 1]);
+        size++;
+    }
+
+    // Index of the first day on or after the given epoch day
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
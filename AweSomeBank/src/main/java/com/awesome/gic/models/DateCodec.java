@@ -0,0 +1,147 @@
+package com.awesome.gic.models;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Parses and formats the yyyyMMdd dates and yyyyMM months used across the ledger by
+ * plain digit arithmetic, without regexes, formatters or exceptions for bad input.
+ */
+public final class DateCodec {
+    /**
+     * Returned by parseEpochDay for input that is not a valid yyyyMMdd date.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // Days from 0000-01-01 to 1970-01-01
+    private static final long DAYS_0000_TO_1970 = 719528;
+
+    private DateCodec() {
+    }
+
+    /**
+     * Returns true if the text is exactly length ASCII digits.
+     */
+    public static boolean isDigits(String text, int length) {
+        if (text == null || text.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the epoch day of a yyyyMMdd date, or INVALID if the text is not eight digits
+     * or not a calendar date.
+     */
+    public static long parseEpochDay(String text) {
+        if (!isDigits(text, 8)) {
+            return INVALID;
+        }
+
+        int year = readDigits(text, 0, 4);
+        int month = readDigits(text, 4, 6);
+        int day = readDigits(text, 6, 8);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Returns the yyyyMMdd date, or null if it is not valid.
+     */
+    public static LocalDate parseDate(String text) {
+        long epochDay = parseEpochDay(text);
+        return epochDay == INVALID ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Returns the yyyyMM month, or null if the text is not six digits or not a valid month.
+     */
+    public static YearMonth parseYearMonth(String text) {
+        if (!isDigits(text, 6)) {
+            return null;
+        }
+
+        int month = readDigits(text, 4, 6);
+        if (month < 1 || month > 12) {
+            return null;
+        }
+        return YearMonth.of(readDigits(text, 0, 4), month);
+    }
+
+    public static String format(LocalDate date) {
+        return format(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    /**
+     * Formats the date as yyyyMMdd. Years outside 0 to 9999 keep all their digits and sign.
+     */
+    public static String format(int year, int month, int day) {
+        if (year < 0 || year > 9999) {
+            return String.format("%d%02d%02d", year, month, day);
+        }
+
+        char[] chars = new char[8];
+        writeDigits(chars, 0, 4, year);
+        writeDigits(chars, 4, 2, month);
+        writeDigits(chars, 6, 2, day);
+        return new String(chars);
+    }
+
+    // Writes value right-aligned into chars[offset, offset + width), zero padded
+    static void writeDigits(char[] chars, int offset, int width, int value) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Reads the digits in text[from, to), which the caller has already checked
+    private static int readDigits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, for years 0 to 9999
+    private static long toEpochDay(int year, int month, int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+}
@@ -0,0 +1,93 @@
+package com.awesome.gic.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    /**
+     * Rejections beyond this many are counted but not kept, so that an import of a file of
+     * bad records does not hold every one of them in memory.
+     */
+    public static final int MAX_REJECTIONS = 1000;
+
+    private int acceptedCount;
+    private int rejectedCount;
+    private List<Rejection> rejections;
+    private long elapsedNanos;
+
+    public ImportResult() {
+        this.acceptedCount = 0;
+        this.rejectedCount = 0;
+        this.rejections = new ArrayList<>();
+        this.elapsedNanos = 0;
+    }
+
+    public int getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public int getTotalCount() {
+        return acceptedCount + rejectedCount;
+    }
+
+    /**
+     * Returns the first MAX_REJECTIONS rejections in line order; getRejectedCount() counts them all.
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getRecordsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return getTotalCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public void addAccepted() {
+        acceptedCount++;
+    }
+
+    public void addRejected(int lineNumber, String record, String reason) {
+        rejectedCount++;
+        if (rejections.size() < MAX_REJECTIONS) {
+            rejections.add(new Rejection(lineNumber, record, reason));
+        }
+    }
+
+    public static class Rejection {
+        private int lineNumber;
+        private String record;
+        private String reason;
+
+        public Rejection(int lineNumber, String record, String reason) {
+            this.lineNumber = lineNumber;
+            this.record = record;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getRecord() {
+            return record;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
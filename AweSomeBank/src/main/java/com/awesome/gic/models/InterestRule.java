@@ -1,7 +1,6 @@
 package com.awesome.gic.models;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 public class InterestRule implements Comparable<InterestRule> {
     private LocalDate date;
@@ -27,7 +26,7 @@ public class InterestRule implements Comparable<InterestRule> {
     }
 
     public String getFormattedDate() {
-        return date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        return DateCodec.format(date);
     }
 
     @Override
@@ -0,0 +1,65 @@
+package com.awesome.gic.models;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+public class InterestSimulationResult {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Map<String, Long> interestCentsByAccount;
+    private long totalInterestCents;
+    private long elapsedNanos;
+
+    public InterestSimulationResult(LocalDate startDate, LocalDate endDate, Map<String, Long> interestCentsByAccount,
+                                    long totalInterestCents, long elapsedNanos) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.interestCentsByAccount = Collections.unmodifiableMap(interestCentsByAccount);
+        this.totalInterestCents = totalInterestCents;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public int getAccountCount() {
+        return interestCentsByAccount.size();
+    }
+
+    /**
+     * Returns the simulated interest in cents of every account, keyed and ordered by account ID.
+     */
+    public Map<String, Long> getInterestCentsByAccount() {
+        return interestCentsByAccount;
+    }
+
+    public long getInterestCents(String accountId) {
+        Long interest = interestCentsByAccount.get(accountId);
+        return interest != null ? interest : 0;
+    }
+
+    public double getTotalInterest() {
+        return Money.toAmount(totalInterestCents);
+    }
+
+    public long getTotalInterestCents() {
+        return totalInterestCents;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getAccountsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return getAccountCount() * 1_000_000_000.0 / elapsedNanos;
+    }
+}
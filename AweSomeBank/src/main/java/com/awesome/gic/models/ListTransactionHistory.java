@@ -0,0 +1,103 @@
+package com.awesome.gic.models;
+
+import com.awesome.gic.interfaces.TransactionHistory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Transaction history that keeps the Transaction objects as posted.
+ */
+public class ListTransactionHistory implements TransactionHistory {
+    private List<Transaction> transactions;
+    private DailyBalances dailyBalances;
+
+    public ListTransactionHistory() {
+        this.transactions = new ArrayList<>();
+        this.dailyBalances = new DailyBalances();
+    }
+
+    @Override
+    public void add(Transaction transaction) {
+        transactions.add(upperBound(transaction.getDate()), transaction);
+        dailyBalances.add((int) transaction.getDate().toEpochDay(), transaction.getSignedAmountCents(),
+                transaction.getType().equalsIgnoreCase("I"));
+    }
+
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+
+    @Override
+    public List<Transaction> getTransactions() {
+        return Collections.unmodifiableList(new ArrayList<>(transactions));
+    }
+
+    @Override
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        int fromIndex = lowerBound(from);
+        int toIndex = upperBound(to);
+        if (fromIndex >= toIndex) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(transactions.subList(fromIndex, toIndex)));
+    }
+
+    @Override
+    public long getBalanceCentsBefore(LocalDate date) {
+        return dailyBalances.getBalanceCentsBefore(date.toEpochDay());
+    }
+
+    @Override
+    public void forEachPostingBetween(LocalDate from, LocalDate to, PostingConsumer consumer) {
+        int toIndex = upperBound(to);
+        for (int i = lowerBound(from); i < toIndex; i++) {
+            Transaction transaction = transactions.get(i);
+            consumer.accept(transaction.getDate().toEpochDay(), Character.toUpperCase(transaction.getType().charAt(0)),
+                    transaction.getSignedAmountCents());
+        }
+    }
+
+    @Override
+    public long getWithdrawableCents(LocalDate date) {
+        return dailyBalances.getWithdrawableCents(date.toEpochDay());
+    }
+
+    @Override
+    public void forEachDayBetween(LocalDate from, LocalDate to, DayConsumer consumer) {
+        dailyBalances.forEachDayBetween(from.toEpochDay(), to.toEpochDay(), consumer);
+    }
+
+    // Index of the first transaction dated on or after the given date
+    private int lowerBound(LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getDate().isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index of the first transaction dated after the given date
+    private int upperBound(LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transactions.get(mid).getDate().isAfter(date)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
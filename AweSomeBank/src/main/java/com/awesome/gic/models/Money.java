@@ -0,0 +1,24 @@
+package com.awesome.gic.models;
+
+/**
+ * Conversions between decimal amounts and the long cents used to hold money.
+ */
+public final class Money {
+    private Money() {
+    }
+
+    public static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Returns true if the amount is exactly representable in cents, i.e. has at most 2 decimal places.
+     */
+    public static boolean hasAtMostTwoDecimals(double amount) {
+        return toAmount(toCents(amount)) == amount;
+    }
+}
@@ -0,0 +1,49 @@
+package com.awesome.gic.models;
+
+public class MonthEndCloseResult {
+    private String yearMonth;
+    private int accountCount;
+    private int postedCount;
+    private long totalInterestCents;
+    private long elapsedNanos;
+
+    public MonthEndCloseResult(String yearMonth, int accountCount, int postedCount,
+                               long totalInterestCents, long elapsedNanos) {
+        this.yearMonth = yearMonth;
+        this.accountCount = accountCount;
+        this.postedCount = postedCount;
+        this.totalInterestCents = totalInterestCents;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getYearMonth() {
+        return yearMonth;
+    }
+
+    public int getAccountCount() {
+        return accountCount;
+    }
+
+    public int getPostedCount() {
+        return postedCount;
+    }
+
+    public double getTotalInterest() {
+        return Money.toAmount(totalInterestCents);
+    }
+
+    public long getTotalInterestCents() {
+        return totalInterestCents;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getAccountsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return accountCount * 1_000_000_000.0 / elapsedNanos;
+    }
+}
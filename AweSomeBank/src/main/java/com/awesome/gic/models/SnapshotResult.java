@@ -0,0 +1,54 @@
+package com.awesome.gic.models;
+
+public class SnapshotResult {
+    private long accountCount;
+    private long transactionCount;
+    private int ruleCount;
+    private long journalRecordCount;
+    private long sizeBytes;
+    private long elapsedNanos;
+
+    public SnapshotResult(long accountCount, long transactionCount, int ruleCount,
+                          long journalRecordCount, long sizeBytes, long elapsedNanos) {
+        this.accountCount = accountCount;
+        this.transactionCount = transactionCount;
+        this.ruleCount = ruleCount;
+        this.journalRecordCount = journalRecordCount;
+        this.sizeBytes = sizeBytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getAccountCount() {
+        return accountCount;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Returns the number of journal records the snapshot already covers.
+     */
+    public long getJournalRecordCount() {
+        return journalRecordCount;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getTransactionsPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return transactionCount * 1_000_000_000.0 / elapsedNanos;
+    }
+}
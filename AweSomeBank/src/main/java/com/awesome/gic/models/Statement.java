@@ -4,15 +4,15 @@ public class Statement {
     private String date;
     private String transactionId;
     private String type;
-    private double amount;
-    private double balance;
+    private long amountCents;
+    private long balanceCents;
 
-    public Statement(String date, String transactionId, String type, double amount, double balance) {
+    public Statement(String date, String transactionId, String type, long amountCents, long balanceCents) {
         this.date = date;
         this.transactionId = transactionId;
         this.type = type;
-        this.amount = amount;
-        this.balance = balance;
+        this.amountCents = amountCents;
+        this.balanceCents = balanceCents;
     }
 
     public String getDate() {
@@ -28,10 +28,18 @@ public class Statement {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toAmount(amountCents);
+    }
+
+    public long getAmountCents() {
+        return amountCents;
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toAmount(balanceCents);
+    }
+
+    public long getBalanceCents() {
+        return balanceCents;
     }
 }
@@ -1,19 +1,26 @@
 package com.awesome.gic.models;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 public class Transaction {
     private LocalDate date;
     private String transactionId;
     private String type;
-    private double amount;
+    private long amountCents;
 
     public Transaction(LocalDate date, String transactionId, String type, double amount) {
+        this(date, transactionId, type, Money.toCents(amount));
+    }
+
+    private Transaction(LocalDate date, String transactionId, String type, long amountCents) {
         this.date = date;
         this.transactionId = transactionId;
         this.type = type;
-        this.amount = amount;
+        this.amountCents = amountCents;
+    }
+
+    public static Transaction ofCents(LocalDate date, String transactionId, String type, long amountCents) {
+        return new Transaction(date, transactionId, type, amountCents);
     }
 
     public LocalDate getDate() {
@@ -29,10 +36,73 @@ public class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toAmount(amountCents);
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * Returns the amount in cents with the sign it has on the account balance.
+     */
+    public long getSignedAmountCents() {
+        return type.equalsIgnoreCase("W") ? -amountCents : amountCents;
     }
 
     public String getFormattedDate() {
-        return date.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        return DateCodec.format(date);
+    }
+
+    /**
+     * Builds the ID yyyyMMdd-NN of the given sequence number on the date. Sequence numbers
+     * past 99 simply use more digits.
+     */
+    public static String formatId(LocalDate date, int sequence) {
+        int digits = sequence < 100 ? 2 : Integer.toString(sequence).length();
+        char[] chars = new char[9 + digits];
+
+        DateCodec.writeDigits(chars, 0, 4, date.getYear());
+        DateCodec.writeDigits(chars, 4, 2, date.getMonthValue());
+        DateCodec.writeDigits(chars, 6, 2, date.getDayOfMonth());
+        chars[8] = '-';
+        DateCodec.writeDigits(chars, 9, digits, sequence);
+
+        return new String(chars);
+    }
+
+    /**
+     * Returns the sequence number encoded in an ID built by formatId for the given date,
+     * or -1 if the ID was not built that way.
+     */
+    public static int parseSequence(String transactionId, LocalDate date) {
+        if (transactionId == null || transactionId.length() < 11 || transactionId.length() > 18
+                || transactionId.charAt(8) != '-'
+                || readDigits(transactionId, 0, 4) != date.getYear()
+                || readDigits(transactionId, 4, 6) != date.getMonthValue()
+                || readDigits(transactionId, 6, 8) != date.getDayOfMonth()) {
+            return -1;
+        }
+
+        long sequence = readDigits(transactionId, 9, transactionId.length());
+        // Only the canonical spelling: two digits below 100, no leading zeros above
+        boolean canonical = sequence < 100 ? transactionId.length() == 11 : transactionId.charAt(9) != '0';
+        if (sequence < 0 || sequence > Integer.MAX_VALUE || !canonical) {
+            return -1;
+        }
+        return (int) sequence;
+    }
+
+    // Reads the decimal number in s[from, to), or -1 if it contains a non-digit
+    private static long readDigits(String s, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.awesome.gic.models;
+
+/**
+ * A transfer between two accounts, posted as a W on the source account and a D on the
+ * target account. The two legs have consecutive IDs on the same date, so each one's ID
+ * identifies the other.
+ */
+public class Transfer {
+    private String fromAccountId;
+    private String toAccountId;
+    private Transaction debit;
+    private Transaction credit;
+
+    public Transfer(String fromAccountId, String toAccountId, Transaction debit, Transaction credit) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.debit = debit;
+        this.credit = credit;
+    }
+
+    public String getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public String getToAccountId() {
+        return toAccountId;
+    }
+
+    public Transaction getDebit() {
+        return debit;
+    }
+
+    public Transaction getCredit() {
+        return credit;
+    }
+}
@@ -0,0 +1,234 @@
+package com.awesome.gic.output;
+
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.models.Transaction;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Renders statement and transaction tables into one reusable line buffer and writes them
+ * through a buffered channel, so large statement dumps cost one write per buffer rather
+ * than one formatted print per line. Amounts are formatted from cents by hand, producing
+ * the same text as the "%6.2f" and "%7.2f" columns printed by the console.
+ *
+ * A renderer is a Consumer of statement lines, so it can be handed straight to
+ * TransactionService.streamStatements. Not thread-safe.
+ */
+public class StatementRenderer implements Consumer<Statement>, Flushable, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final boolean ownsChannel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private final StringBuilder line;
+    private char[] chars;
+    private CharBuffer charBuffer;
+    private long lineCount;
+
+    private StatementRenderer(WritableByteChannel channel, boolean ownsChannel, int bufferSize) {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.line = new StringBuilder(128);
+        this.chars = new char[128];
+        this.charBuffer = CharBuffer.wrap(chars);
+    }
+
+    /**
+     * Renders to System.out. Closing the renderer flushes it but leaves System.out open.
+     */
+    public static StatementRenderer toConsole() {
+        return new StatementRenderer(Channels.newChannel(System.out), false, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Renders to the file, replacing any existing content.
+     */
+    public static StatementRenderer toFile(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new StatementRenderer(channel, true, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Renders to the file name.txt in the directory, creating the directory if needed. Characters
+     * of the name other than ASCII letters, digits, '-' and '_' are percent-encoded, so every name,
+     * e.g. an account ID containing '/' or "..", maps to its own file directly in the directory.
+     */
+    public static StatementRenderer toDirectory(Path directory, String name) throws IOException {
+        Files.createDirectories(directory);
+        Path base = directory.toAbsolutePath().normalize();
+        Path file = base.resolve(encodeFileName(name) + ".txt").normalize();
+        if (!base.equals(file.getParent())) {
+            throw new IOException("Statement file for " + name + " would be outside " + directory);
+        }
+        return toFile(file);
+    }
+
+    private static String encodeFileName(String name) {
+        StringBuilder encoded = new StringBuilder(name.length());
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-' || c == '_') {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return encoded.toString();
+    }
+
+    public void writeStatementHeader(String accountId) {
+        line.append("Account: ").append(accountId).append('\n');
+        line.append("| Date     | Txn Id      | Type | Amount | Balance |\n");
+        writeLine();
+    }
+
+    /**
+     * Renders one statement line.
+     */
+    @Override
+    public void accept(Statement statement) {
+        line.append("| ").append(statement.getDate()).append(" | ");
+        appendPadded(statement.getTransactionId() != null ? statement.getTransactionId() : "", 11);
+        line.append(" | ");
+        appendPadded(statement.getType(), 4);
+        line.append(" | ");
+        appendCents(statement.getAmountCents(), 6);
+        line.append(" | ");
+        appendCents(statement.getBalanceCents(), 7);
+        line.append(" |\n");
+        writeLine();
+        lineCount++;
+    }
+
+    /**
+     * Renders the account's transactions as printed after each posting, followed by a blank line.
+     */
+    public void writeTransactions(String accountId, List<Transaction> transactions) {
+        line.append("Account: ").append(accountId).append('\n');
+        line.append("| Date     | Txn Id      | Type | Amount |\n");
+        writeLine();
+
+        for (Transaction transaction : transactions) {
+            line.append("| ").append(transaction.getFormattedDate()).append(" | ");
+            line.append(transaction.getTransactionId()).append(" | ");
+            appendPadded(transaction.getType(), 4);
+            line.append(" | ");
+            appendCents(transaction.getAmountCents(), 6);
+            line.append(" |\n");
+            writeLine();
+        }
+        writeText("\n");
+    }
+
+    public void writeText(String text) {
+        line.append(text);
+        writeLine();
+    }
+
+    /**
+     * Returns the number of statement lines rendered so far.
+     */
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    @Override
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (ownsChannel) {
+                channel.close();
+            }
+        }
+    }
+
+    // Encodes the pending line into the byte buffer, writing the buffer out whenever it fills
+    private void writeLine() {
+        int length = line.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            charBuffer = CharBuffer.wrap(chars);
+        }
+        line.getChars(0, length, chars, 0);
+        line.setLength(0);
+
+        charBuffer.clear();
+        charBuffer.limit(length);
+        CoderResult result = encoder.encode(charBuffer, buffer, false);
+        while (result.isOverflow()) {
+            flush();
+            result = encoder.encode(charBuffer, buffer, false);
+        }
+    }
+
+    // Left-aligns text in a column of the given width, like "%-<width>s"
+    private void appendPadded(String text, int width) {
+        line.append(text);
+        for (int i = text.length(); i < width; i++) {
+            line.append(' ');
+        }
+    }
+
+    // Right-aligns the amount with two decimals in a column of the given width, like "%<width>.2f"
+    private void appendCents(long cents, int width) {
+        long units = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        int length = (cents < 0 ? 1 : 0) + digitCount(units) + 3;
+        for (int i = length; i < width; i++) {
+            line.append(' ');
+        }
+        if (cents < 0) {
+            line.append('-');
+        }
+        line.append(units).append('.');
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,513 @@
+package com.awesome.gic.persistence;
+
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary journal of accepted transactions, transfers and interest rules, written
+ * through memory-mapped chunks of the journal file. Both legs of a transfer share one record,
+ * so they are replayed together or not at all.
+ *
+ * Each record is [kind:1][payload length:4][payload][crc32:4], the checksum covering the kind,
+ * length and payload. A record never spans two chunks; the unused end of a chunk is marked
+ * with a padding byte. The file is zero-filled past the last record, so a zero kind byte marks
+ * the end of the journal. Replay stops at the first torn or corrupt record, including one that
+ * passes its checksum but cannot be decoded, and appending resumes from there.
+ *
+ * Appends only write to the mapped file. A posting is acknowledged once awaitDurable returns,
+ * which waits for a group commit: the first waiter forces everything appended so far with
+ * one fsync, outside the append lock, while later waiters queue behind it and are released
+ * together by the next fsync that covers their records. A commit delay makes each fsync wait
+ * that long first, so that more records join it.
+ */
+public class Journal implements LedgerListener, Closeable {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final byte END = 0;
+    private static final byte TRANSACTION = 1;
+    private static final byte INTEREST_RULE = 2;
+    private static final byte TRANSFER = 3;
+    private static final byte PADDING = (byte) 0xFF;
+    private static final int RECORD_OVERHEAD = 1 + 4 + 4;
+    // Fixed fields plus the length prefix of each string
+    private static final int MIN_TRANSACTION_PAYLOAD = 4 + 4 + 1 + 8 + 2;
+    private static final int MIN_INTEREST_RULE_PAYLOAD = 4 + 8 + 2;
+    private static final int MIN_TRANSFER_PAYLOAD = 4 + 4 + 8 + 2 + 2;
+
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final long commitDelayMillis;
+    private final CRC32 crc;
+    // Guarded by this
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long recordCount;
+    // Chunks filled since the last fsync, and where the unforced part of the current chunk starts
+    private List<MappedByteBuffer> unforcedChunks;
+    private int unforcedFrom;
+    // File position just past the last appended record
+    private volatile long appendedPosition;
+    // Guarded by commitLock: everything before durablePosition is forced, and whether a force is running
+    private final Object commitLock;
+    private long durablePosition;
+    private boolean forcing;
+    private long commitCount;
+
+    private Journal(FileChannel channel, int chunkSize, long commitDelayMillis) {
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.commitDelayMillis = commitDelayMillis;
+        this.crc = new CRC32();
+        this.unforcedChunks = new ArrayList<>();
+        this.commitLock = new Object();
+    }
+
+    public static Journal open(Path path, long commitDelayMillis, LedgerListener replayTarget) throws IOException {
+        return open(path, DEFAULT_CHUNK_SIZE, commitDelayMillis, replayTarget);
+    }
+
+    /**
+     * Opens or creates the journal, passes every record already in it to replayTarget
+     * in the order it was written and positions the journal for appending after them.
+     * Each group commit first waits commitDelayMillis, if positive, for more records to join it.
+     */
+    public static Journal open(Path path, int chunkSize, long commitDelayMillis, LedgerListener replayTarget)
+            throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Journal journal = new Journal(channel, chunkSize, commitDelayMillis);
+        try {
+            journal.replay(replayTarget);
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns how many group commits have forced records to disk since the journal was opened.
+     */
+    public long getCommitCount() {
+        synchronized (commitLock) {
+            return commitCount;
+        }
+    }
+
+    @Override
+    public void transactionPosted(String accountId, Transaction transaction) {
+        byte[] accountBytes = encode(accountId);
+        int sequence = Transaction.parseSequence(transaction.getTransactionId(), transaction.getDate());
+        // IDs that do not follow yyyyMMdd-NN are kept verbatim
+        byte[] idBytes = sequence < 0 ? encode(transaction.getTransactionId()) : null;
+        int payloadLength = 4 + 4 + 1 + 8 + 2 + accountBytes.length + (idBytes != null ? 2 + idBytes.length : 0);
+
+        synchronized (this) {
+            int recordStart = beginRecord(TRANSACTION, payloadLength);
+            ByteBuffer buffer = chunk;
+            buffer.putInt((int) transaction.getDate().toEpochDay());
+            buffer.putInt(sequence);
+            buffer.put((byte) transaction.getType().charAt(0));
+            buffer.putLong(transaction.getAmountCents());
+            putString(buffer, accountBytes);
+            if (idBytes != null) {
+                putString(buffer, idBytes);
+            }
+            endRecord(buffer, recordStart);
+        }
+    }
+
+    @Override
+    public void transferPosted(Transfer transfer) {
+        Transaction debit = transfer.getDebit();
+        int sequence = Transaction.parseSequence(debit.getTransactionId(), debit.getDate());
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Transfer legs must have consecutive yyyyMMdd-NN IDs");
+        }
+        byte[] fromBytes = encode(transfer.getFromAccountId());
+        byte[] toBytes = encode(transfer.getToAccountId());
+        int payloadLength = MIN_TRANSFER_PAYLOAD + fromBytes.length + toBytes.length;
+
+        synchronized (this) {
+            int recordStart = beginRecord(TRANSFER, payloadLength);
+            ByteBuffer buffer = chunk;
+            buffer.putInt((int) debit.getDate().toEpochDay());
+            buffer.putInt(sequence);
+            buffer.putLong(debit.getAmountCents());
+            putString(buffer, fromBytes);
+            putString(buffer, toBytes);
+            endRecord(buffer, recordStart);
+        }
+    }
+
+    @Override
+    public void interestRuleAdded(InterestRule rule) {
+        byte[] ruleIdBytes = encode(rule.getRuleId());
+        int payloadLength = 4 + 8 + 2 + ruleIdBytes.length;
+
+        synchronized (this) {
+            int recordStart = beginRecord(INTEREST_RULE, payloadLength);
+            ByteBuffer buffer = chunk;
+            buffer.putInt((int) rule.getDate().toEpochDay());
+            buffer.putDouble(rule.getRate());
+            putString(buffer, ruleIdBytes);
+            endRecord(buffer, recordStart);
+        }
+    }
+
+    /**
+     * Returns once every record appended before the call is forced to disk, joining the group
+     * commit in progress or leading the next one.
+     */
+    @Override
+    public void awaitDurable() {
+        long target = appendedPosition;
+        boolean interrupted = false;
+        synchronized (commitLock) {
+            while (durablePosition < target) {
+                if (!forcing) {
+                    forcing = true;
+                    break;
+                }
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) {
+                    // The record is already applied, so its commit cannot be abandoned
+                    interrupted = true;
+                }
+            }
+            if (durablePosition >= target) {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+        }
+
+        long forcedPosition = -1;
+        try {
+            forcedPosition = forceGroup();
+        } finally {
+            synchronized (commitLock) {
+                forcing = false;
+                if (forcedPosition > durablePosition) {
+                    durablePosition = forcedPosition;
+                    commitCount++;
+                }
+                commitLock.notifyAll();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public void sync() {
+        awaitDurable();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    // Forces the records appended since the last group commit and returns the position they end at.
+    // Only the range to force is taken under the append lock; appends go on while it is forced.
+    private long forceGroup() {
+        if (commitDelayMillis > 0) {
+            try {
+                Thread.sleep(commitDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<MappedByteBuffer> filled;
+        MappedByteBuffer current;
+        int from;
+        int to;
+        long position;
+        synchronized (this) {
+            filled = unforcedChunks;
+            unforcedChunks = new ArrayList<>();
+            current = chunk;
+            from = unforcedFrom;
+            to = chunk.position();
+            unforcedFrom = to;
+            position = chunkStart + to;
+        }
+
+        try {
+            for (MappedByteBuffer buffer : filled) {
+                buffer.force();
+            }
+            if (to > from) {
+                current.force(from, to - from);
+            }
+        } catch (RuntimeException e) {
+            // Leave the range for the next commit to force again
+            synchronized (this) {
+                unforcedChunks.addAll(0, filled);
+                if (current == chunk) {
+                    unforcedFrom = Math.min(unforcedFrom, from);
+                } else if (!unforcedChunks.contains(current)) {
+                    unforcedChunks.add(current);
+                }
+            }
+            throw e;
+        }
+        return position;
+    }
+
+    private void replay(LedgerListener target) throws IOException {
+        chunkStart = 0;
+        chunk = map(chunkStart);
+
+        while (true) {
+            if (!chunk.hasRemaining()) {
+                moveToNextChunk();
+                continue;
+            }
+
+            int recordStart = chunk.position();
+            byte kind = chunk.get();
+            if (kind == PADDING) {
+                moveToNextChunk();
+                continue;
+            }
+            if (kind == END) {
+                chunk.position(recordStart);
+                startAppending();
+                return;
+            }
+            int minPayloadLength = minPayloadLength(kind);
+            if (minPayloadLength < 0 || chunk.remaining() < 8) {
+                discardFrom(recordStart);
+                return;
+            }
+
+            int payloadLength = chunk.getInt();
+            if (payloadLength < minPayloadLength || payloadLength + 4 > chunk.remaining()) {
+                discardFrom(recordStart);
+                return;
+            }
+
+            ByteBuffer payload = chunk.slice();
+            payload.limit(payloadLength);
+            chunk.position(chunk.position() + payloadLength);
+            ByteBuffer header = chunk.duplicate();
+            header.position(recordStart).limit(chunk.position());
+            int storedCrc = chunk.getInt();
+            if (storedCrc != checksum(header)) {
+                discardFrom(recordStart);
+                return;
+            }
+
+            // Decode fully before handing anything to the target, so a bad record applies nothing
+            Runnable apply;
+            try {
+                if (kind == TRANSACTION) {
+                    apply = readTransaction(payload, target);
+                } else if (kind == TRANSFER) {
+                    apply = readTransfer(payload, target);
+                } else {
+                    apply = readInterestRule(payload, target);
+                }
+                if (payload.hasRemaining()) {
+                    throw new IllegalStateException("Trailing bytes in journal record");
+                }
+            } catch (RuntimeException e) {
+                discardFrom(recordStart);
+                return;
+            }
+            apply.run();
+            recordCount++;
+        }
+    }
+
+    // Returns the smallest valid payload of the kind of record, or -1 if the kind is unknown
+    private static int minPayloadLength(byte kind) {
+        switch (kind) {
+            case TRANSACTION:
+                return MIN_TRANSACTION_PAYLOAD;
+            case INTEREST_RULE:
+                return MIN_INTEREST_RULE_PAYLOAD;
+            case TRANSFER:
+                return MIN_TRANSFER_PAYLOAD;
+            default:
+                return -1;
+        }
+    }
+
+    // Drops everything from the given position of the current chunk on, so appends start clean
+    private void discardFrom(int position) throws IOException {
+        chunk.position(position);
+        boolean hadData = false;
+        for (int i = position; i < chunkSize; i++) {
+            if (chunk.get(i) != 0) {
+                chunk.put(i, (byte) 0);
+                hadData = true;
+            }
+        }
+        if (hadData) {
+            chunk.force();
+        }
+        if (channel.size() > chunkStart + chunkSize) {
+            channel.truncate(chunkStart + chunkSize);
+        }
+        startAppending();
+    }
+
+    // Everything replayed is already on disk, so commits start from the current position
+    private void startAppending() {
+        unforcedFrom = chunk.position();
+        appendedPosition = chunkStart + unforcedFrom;
+        durablePosition = appendedPosition;
+    }
+
+    private static Runnable readTransaction(ByteBuffer payload, LedgerListener target) {
+        LocalDate date = LocalDate.ofEpochDay(payload.getInt());
+        int sequence = payload.getInt();
+        String type = String.valueOf((char) payload.get());
+        long amountCents = payload.getLong();
+        String accountId = getString(payload);
+        String transactionId = sequence < 0 ? getString(payload) : Transaction.formatId(date, sequence);
+        Transaction transaction = Transaction.ofCents(date, transactionId, type, amountCents);
+
+        return () -> {
+            if (target != null) {
+                target.transactionPosted(accountId, transaction);
+            }
+        };
+    }
+
+    private static Runnable readTransfer(ByteBuffer payload, LedgerListener target) {
+        LocalDate date = LocalDate.ofEpochDay(payload.getInt());
+        int sequence = payload.getInt();
+        if (sequence < 0) {
+            throw new IllegalStateException("Transfer record without a debit sequence");
+        }
+        long amountCents = payload.getLong();
+        String fromAccountId = getString(payload);
+        String toAccountId = getString(payload);
+        Transfer transfer = new Transfer(fromAccountId, toAccountId,
+                Transaction.ofCents(date, Transaction.formatId(date, sequence), "W", amountCents),
+                Transaction.ofCents(date, Transaction.formatId(date, sequence + 1), "D", amountCents));
+
+        return () -> {
+            if (target != null) {
+                target.transferPosted(transfer);
+            }
+        };
+    }
+
+    private static Runnable readInterestRule(ByteBuffer payload, LedgerListener target) {
+        LocalDate date = LocalDate.ofEpochDay(payload.getInt());
+        double rate = payload.getDouble();
+        String ruleId = getString(payload);
+        InterestRule rule = new InterestRule(date, ruleId, rate);
+
+        return () -> {
+            if (target != null) {
+                target.interestRuleAdded(rule);
+            }
+        };
+    }
+
+    // Makes room for the record in the current chunk, rolling over to the next one if needed,
+    // and returns where in the chunk the record starts
+    private int beginRecord(byte kind, int payloadLength) {
+        int recordLength = RECORD_OVERHEAD + payloadLength;
+        if (recordLength > chunkSize) {
+            throw new IllegalArgumentException("Journal record of " + recordLength + " bytes exceeds the chunk size");
+        }
+
+        try {
+            if (chunk.remaining() < recordLength) {
+                if (chunk.hasRemaining()) {
+                    chunk.put(PADDING);
+                }
+                unforcedChunks.add(chunk);
+                moveToNextChunk();
+                unforcedFrom = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to extend journal", e);
+        }
+
+        int recordStart = chunk.position();
+        chunk.put(kind);
+        chunk.putInt(payloadLength);
+        return recordStart;
+    }
+
+    private void endRecord(ByteBuffer buffer, int recordStart) {
+        ByteBuffer record = buffer.duplicate();
+        record.flip();
+        record.position(recordStart);
+        buffer.putInt(checksum(record));
+
+        recordCount++;
+        appendedPosition = chunkStart + buffer.position();
+    }
+
+    private void moveToNextChunk() throws IOException {
+        chunkStart += chunkSize;
+        chunk = map(chunkStart);
+    }
+
+    private MappedByteBuffer map(long position) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, position, chunkSize);
+    }
+
+    private int checksum(ByteBuffer bytes) {
+        crc.reset();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Journal strings are limited to 65535 bytes");
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
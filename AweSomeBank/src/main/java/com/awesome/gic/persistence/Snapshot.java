@@ -0,0 +1,457 @@
+package com.awesome.gic.persistence;
+
+import com.awesome.gic.interfaces.AccountService;
+import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.SnapshotResult;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.LedgerCut;
+import com.awesome.gic.services.TransactionServiceImpl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the whole bank: interest rules, per-day transaction ID counters, the
+ * links between transfer legs and every account with its transactions.
+ *
+ * The file is a header, then the accounts in segments of up to 1024 accounts or 16 MiB, then
+ * a ledger section with the rules, counters and transfers, then a footer indexing the other
+ * sections, then a fixed trailer:
+ *
+ *   header:  [magic:8][version:4][journal records:8]
+ *   account: [account ID][transaction count:4] then per transaction
+ *            [epoch day:4][sequence:4][type:1][amount cents:8], plus the ID if the sequence is below 0
+ *   ledger:  [rule count:4][rules][counter count:4][counters][transfer count:4] then per transfer
+ *            [epoch day:4][debit sequence:4][amount cents:8][from][to]
+ *   footer:  [header length:8][header crc:4][ledger offset:8][ledger length:8][ledger crc:4]
+ *            [segment count:4] then per segment [offset:8][length:8][account count:4][crc:4]
+ *   trailer: [footer offset:8][footer crc:4][magic:8]
+ *
+ * Each segment is read with one positional read and checked against its CRC32. Segments
+ * are independent, so they can be restored in parallel. A snapshot is written to a
+ * temporary file and moved into place, so a crash never leaves a partial snapshot behind.
+ */
+public final class Snapshot {
+    private static final long MAGIC = 0x4147_4943_534E_4150L; // "AGICSNAP"
+    private static final int VERSION = 3;
+    // Version 1 snapshots have no transfers, and versions before 3 keep the ledger section in the header
+    private static final int MIN_VERSION = 1;
+    private static final int SEGMENT_ACCOUNTS = 1024;
+    private static final long SEGMENT_BYTES = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final int TRAILER_LENGTH = 8 + 4 + 8;
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes the state of the services to the file without pausing postings. journalRecordCount
+     * is read first, then the accounts, transfers and ID counters are read through a cut of the
+     * ledger started right after, so the snapshot holds every change the first journalRecordCount
+     * records made. It may also hold some postings made after the cut started; replaying the
+     * journal from that count skips them, as restoring a transaction is idempotent. The file is
+     * forced once the cut is closed.
+     */
+    public static SnapshotResult write(Path path, AccountService accountService, InterestRuleService interestRuleService,
+                                       TransactionServiceImpl transactionService, LongSupplier journalRecordCount)
+            throws IOException {
+        long startTime = System.nanoTime();
+        long journalRecords = journalRecordCount.getAsLong();
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        List<InterestRule> rules;
+        long accountCount = 0;
+        long transactionCount = 0;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+
+            out.startSection();
+            out.putLong(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(journalRecords);
+            long headerLength = out.position();
+            int headerCrc = out.endSection();
+
+            List<long[]> segments = new ArrayList<>();
+            long ledgerOffset;
+            int ledgerCrc;
+            LedgerCut cut = transactionService.openCut();
+            try {
+                long segmentStart = out.position();
+                int segmentAccounts = 0;
+                out.startSection();
+                for (Account account : accountService.getAllAccounts()) {
+                    List<Transaction> transactions = cut.getTransactions(account);
+                    out.putString(account.getAccountId());
+                    out.putInt(transactions.size());
+                    for (Transaction transaction : transactions) {
+                        int sequence = Transaction.parseSequence(transaction.getTransactionId(), transaction.getDate());
+                        out.putInt((int) transaction.getDate().toEpochDay());
+                        out.putInt(sequence);
+                        out.putByte((byte) transaction.getType().charAt(0));
+                        out.putLong(transaction.getAmountCents());
+                        // IDs that do not follow yyyyMMdd-NN are kept verbatim
+                        if (sequence < 0) {
+                            out.putString(transaction.getTransactionId());
+                        }
+                    }
+                    accountCount++;
+                    transactionCount += transactions.size();
+
+                    segmentAccounts++;
+                    if (segmentAccounts == SEGMENT_ACCOUNTS || out.position() - segmentStart >= SEGMENT_BYTES) {
+                        int crc = out.endSection();
+                        segments.add(new long[] {segmentStart, out.position() - segmentStart, segmentAccounts, crc});
+                        segmentStart = out.position();
+                        segmentAccounts = 0;
+                        out.startSection();
+                    }
+                }
+                int lastCrc = out.endSection();
+                if (segmentAccounts > 0) {
+                    segments.add(new long[] {segmentStart, out.position() - segmentStart, segmentAccounts, lastCrc});
+                }
+
+                // Read after the accounts, so every transfer and ID they hold is already recorded
+                ledgerOffset = out.position();
+                out.startSection();
+                rules = interestRuleService.getAllInterestRules();
+                out.putInt(rules.size());
+                for (InterestRule rule : rules) {
+                    out.putInt((int) rule.getDate().toEpochDay());
+                    out.putDouble(rule.getRate());
+                    out.putString(rule.getRuleId());
+                }
+                Map<LocalDate, Integer> counts = transactionService.getTransactionIdCounts();
+                out.putInt(counts.size());
+                for (Map.Entry<LocalDate, Integer> count : counts.entrySet()) {
+                    out.putInt((int) count.getKey().toEpochDay());
+                    out.putInt(count.getValue());
+                }
+                List<Transfer> transfers = new ArrayList<>();
+                for (Transfer transfer : transactionService.getTransfers()) {
+                    if (cut.includes(transfer)) {
+                        transfers.add(transfer);
+                    }
+                }
+                out.putInt(transfers.size());
+                for (Transfer transfer : transfers) {
+                    Transaction debit = transfer.getDebit();
+                    out.putInt((int) debit.getDate().toEpochDay());
+                    out.putInt(Transaction.parseSequence(debit.getTransactionId(), debit.getDate()));
+                    out.putLong(debit.getAmountCents());
+                    out.putString(transfer.getFromAccountId());
+                    out.putString(transfer.getToAccountId());
+                }
+                ledgerCrc = out.endSection();
+            } finally {
+                transactionService.closeCut(cut);
+            }
+            long ledgerLength = out.position() - ledgerOffset;
+
+            long footerOffset = out.position();
+            out.startSection();
+            out.putLong(headerLength);
+            out.putInt(headerCrc);
+            out.putLong(ledgerOffset);
+            out.putLong(ledgerLength);
+            out.putInt(ledgerCrc);
+            out.putInt(segments.size());
+            for (long[] segment : segments) {
+                out.putLong(segment[0]);
+                out.putLong(segment[1]);
+                out.putInt((int) segment[2]);
+                out.putInt((int) segment[3]);
+            }
+            int footerCrc = out.endSection();
+            out.putLong(footerOffset);
+            out.putInt(footerCrc);
+            out.putLong(MAGIC);
+            out.flush();
+
+            size = out.position();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new SnapshotResult(accountCount, transactionCount, rules.size(), journalRecords, size,
+                System.nanoTime() - startTime);
+    }
+
+    /**
+     * Restores a snapshot into empty services without notifying listeners, reading account
+     * segments on up to parallelism threads.
+     */
+    public static SnapshotResult restore(Path path, AccountService accountService, InterestRuleServiceImpl interestRuleService,
+                                         TransactionServiceImpl transactionService, int parallelism) throws IOException {
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TRAILER_LENGTH) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            ByteBuffer trailer = read(channel, size - TRAILER_LENGTH, TRAILER_LENGTH);
+            long footerOffset = trailer.getLong();
+            int footerCrc = trailer.getInt();
+            if (trailer.getLong() != MAGIC || footerOffset < 0 || footerOffset > size - TRAILER_LENGTH) {
+                throw new IOException("Snapshot " + path + " is not a complete snapshot");
+            }
+            ByteBuffer footer = readChecked(channel, footerOffset, size - TRAILER_LENGTH - footerOffset, footerCrc, "footer");
+
+            long headerLength = footer.getLong();
+            int headerCrc = footer.getInt();
+            ByteBuffer header = readChecked(channel, 0, headerLength, headerCrc, "header");
+            long magic = header.getLong();
+            int version = header.getInt();
+            if (magic != MAGIC || version < MIN_VERSION || version > VERSION) {
+                throw new IOException("Snapshot " + path + " has an unsupported format");
+            }
+            long journalRecordCount = header.getLong();
+            // Before version 3 the rules, counters and transfers follow in the header
+            ByteBuffer ledger = header;
+            if (version >= 3) {
+                long ledgerOffset = footer.getLong();
+                long ledgerLength = footer.getLong();
+                ledger = readChecked(channel, ledgerOffset, ledgerLength, footer.getInt(), "ledger");
+            }
+            int ruleCount = ledger.getInt();
+            for (int i = 0; i < ruleCount; i++) {
+                LocalDate date = LocalDate.ofEpochDay(ledger.getInt());
+                double rate = ledger.getDouble();
+                interestRuleService.restoreInterestRule(new InterestRule(date, getString(ledger), rate));
+            }
+            int counterCount = ledger.getInt();
+            for (int i = 0; i < counterCount; i++) {
+                transactionService.restoreTransactionIdCount(LocalDate.ofEpochDay(ledger.getInt()), ledger.getInt());
+            }
+            int transferCount = version >= 2 ? ledger.getInt() : 0;
+            for (int i = 0; i < transferCount; i++) {
+                LocalDate date = LocalDate.ofEpochDay(ledger.getInt());
+                int sequence = ledger.getInt();
+                long amountCents = ledger.getLong();
+                String fromAccountId = getString(ledger);
+                String toAccountId = getString(ledger);
+                transactionService.restoreTransferLink(new Transfer(fromAccountId, toAccountId,
+                        Transaction.ofCents(date, Transaction.formatId(date, sequence), "W", amountCents),
+                        Transaction.ofCents(date, Transaction.formatId(date, sequence + 1), "D", amountCents)));
+            }
+
+            int segmentCount = footer.getInt();
+            List<SegmentRestore> segments = new ArrayList<>(segmentCount);
+            for (int i = 0; i < segmentCount; i++) {
+                segments.add(new SegmentRestore(channel, footer.getLong(), footer.getLong(), footer.getInt(),
+                        footer.getInt(), accountService));
+            }
+
+            long accountCount = 0;
+            long transactionCount = 0;
+            for (long[] counts : runAll(segments, parallelism)) {
+                accountCount += counts[0];
+                transactionCount += counts[1];
+            }
+            return new SnapshotResult(accountCount, transactionCount, ruleCount, journalRecordCount, size,
+                    System.nanoTime() - startTime);
+        }
+    }
+
+    private static List<long[]> runAll(List<SegmentRestore> segments, int parallelism) throws IOException {
+        List<long[]> results = new ArrayList<>(segments.size());
+        if (parallelism <= 1 || segments.size() <= 1) {
+            for (SegmentRestore segment : segments) {
+                results.add(segment.call());
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, segments.size()));
+        try {
+            List<Future<long[]>> futures = new ArrayList<>(segments.size());
+            for (SegmentRestore segment : segments) {
+                futures.add(executor.submit(segment));
+            }
+            for (Future<long[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to restore snapshot", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while restoring snapshot", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Restores the accounts of one segment and returns their account and transaction counts
+    private static class SegmentRestore implements Callable<long[]> {
+        private final FileChannel channel;
+        private final long offset;
+        private final long length;
+        private final int accountCount;
+        private final int crc;
+        private final AccountService accountService;
+
+        SegmentRestore(FileChannel channel, long offset, long length, int accountCount, int crc,
+                       AccountService accountService) {
+            this.channel = channel;
+            this.offset = offset;
+            this.length = length;
+            this.accountCount = accountCount;
+            this.crc = crc;
+            this.accountService = accountService;
+        }
+
+        @Override
+        public long[] call() throws IOException {
+            ByteBuffer segment = readChecked(channel, offset, length, crc, "segment at " + offset);
+            long transactionCount = 0;
+            for (int i = 0; i < accountCount; i++) {
+                Account account = accountService.createAccount(getString(segment));
+                int count = segment.getInt();
+                synchronized (account) {
+                    for (int j = 0; j < count; j++) {
+                        LocalDate date = LocalDate.ofEpochDay(segment.getInt());
+                        int sequence = segment.getInt();
+                        String type = String.valueOf((char) segment.get());
+                        long amountCents = segment.getLong();
+                        String transactionId = sequence < 0 ? getString(segment) : Transaction.formatId(date, sequence);
+                        account.addTransaction(Transaction.ofCents(date, transactionId, type, amountCents));
+                    }
+                }
+                transactionCount += count;
+            }
+            return new long[] {accountCount, transactionCount};
+        }
+    }
+
+    private static ByteBuffer readChecked(FileChannel channel, long position, long length, int expectedCrc,
+                                          String section) throws IOException {
+        if (length < 0 || length > Integer.MAX_VALUE || position + length > channel.size()) {
+            throw new IOException("Snapshot " + section + " is out of bounds");
+        }
+        ByteBuffer buffer = read(channel, position, (int) length);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("Snapshot " + section + " is corrupt");
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Snapshot ends unexpectedly");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Buffered sequential writer that checksums the bytes written since startSection
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32 crc;
+        private long flushed;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            this.crc = new CRC32();
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void startSection() throws IOException {
+            flush();
+            crc.reset();
+        }
+
+        int endSection() throws IOException {
+            flush();
+            return (int) crc.getValue();
+        }
+
+        void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Snapshot strings are limited to 65535 bytes");
+            }
+            ensure(2 + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensure(int length) throws IOException {
+            if (buffer.remaining() < length) {
+                flush();
+            }
+        }
+    }
+}
@@ -1,18 +1,31 @@
 package com.awesome.gic.services;
 
 import com.awesome.gic.interfaces.AccountService;
+import com.awesome.gic.interfaces.TransactionHistory;
 import com.awesome.gic.models.Account;
+import com.awesome.gic.models.ListTransactionHistory;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 public class AccountServiceImpl implements AccountService {
-    private Map<String, Account> accounts;
+    private ConcurrentMap<String, Account> accounts;
+    private Supplier<TransactionHistory> historyFactory;
 
     public AccountServiceImpl() {
-        accounts = new HashMap<>();
+        this(ListTransactionHistory::new);
+    }
+
+    /**
+     * Creates a registry whose new accounts keep their history in stores from the given factory,
+     * e.g. ColumnarTransactionHistory::new for compact storage of large ledgers.
+     */
+    public AccountServiceImpl(Supplier<TransactionHistory> historyFactory) {
+        this.accounts = new ConcurrentHashMap<>();
+        this.historyFactory = historyFactory;
     }
 
     @Override
@@ -22,9 +35,8 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public Account createAccount(String accountId) {
-        Account account = new Account(accountId);
-        accounts.put(accountId, account);
-        return account;
+        // Concurrent callers creating the same account all get the same instance
+        return accounts.computeIfAbsent(accountId, id -> new Account(id, historyFactory.get()));
     }
 
     @Override
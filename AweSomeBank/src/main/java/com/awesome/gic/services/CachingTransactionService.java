@@ -0,0 +1,252 @@
+package com.awesome.gic.services;
+
+import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.interfaces.TransactionService;
+import com.awesome.gic.models.DateCodec;
+import com.awesome.gic.models.ImportResult;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * TransactionService decorator that keeps the most recently used monthly statements.
+ *
+ * It must be registered as a LedgerListener with the transaction and interest rule services.
+ * A posting dated in month M drops the account's cached statements for M and later months,
+ * since their balances change. An interest rule effective on date D drops every account's
+ * statements for the months from D up to the next rule change, whose interest changes.
+ * Postings to accounts with no cached statements only bump a striped version counter and
+ * never take the cache lock, so they do not serialize posting threads.
+ */
+public class CachingTransactionService implements TransactionService, LedgerListener {
+    private static final int VERSION_STRIPES = 1024;
+
+    private TransactionService delegate;
+    private InterestRuleService interestRuleService;
+    private int maxEntries;
+    private LinkedHashMap<Key, List<Statement>> statements;
+    // Cached months per account, so a posting only touches that account's entries. Concurrent so
+    // that postings to accounts with nothing cached can check it without taking the cache lock.
+    private ConcurrentMap<String, NavigableSet<Integer>> monthsByAccount;
+    // Bumped on every invalidation; a statement is only cached if nothing it depends on changed meanwhile
+    private AtomicLongArray accountVersions;
+    private AtomicLong ruleVersion;
+    private AtomicLong hits;
+    private AtomicLong misses;
+
+    public CachingTransactionService(TransactionService delegate, InterestRuleService interestRuleService, int maxEntries) {
+        this.delegate = delegate;
+        this.interestRuleService = interestRuleService;
+        this.maxEntries = maxEntries;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+        this.monthsByAccount = new ConcurrentHashMap<>();
+        this.accountVersions = new AtomicLongArray(VERSION_STRIPES);
+        this.ruleVersion = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    @Override
+    public Transaction createTransaction(String date, String accountId, String type, double amount) throws Exception {
+        return delegate.createTransaction(date, accountId, type, amount);
+    }
+
+    @Override
+    public Transfer createTransfer(String date, String fromAccountId, String toAccountId, double amount) throws Exception {
+        return delegate.createTransfer(date, fromAccountId, toAccountId, amount);
+    }
+
+    @Override
+    public ImportResult importTransactions(Iterator<String> records) {
+        return delegate.importTransactions(records);
+    }
+
+    @Override
+    public int getTransactionCount(LocalDate date) {
+        return delegate.getTransactionCount(date);
+    }
+
+    @Override
+    public long balanceAsOf(String accountId, String date) throws Exception {
+        return delegate.balanceAsOf(accountId, date);
+    }
+
+    @Override
+    public List<Statement> generateMonthlyStatement(String accountId, String yearMonth) {
+        if (!DateCodec.isDigits(yearMonth, 6)) {
+            return delegate.generateMonthlyStatement(accountId, yearMonth);
+        }
+
+        Key key = new Key(accountId, Integer.parseInt(yearMonth));
+        synchronized (this) {
+            List<Statement> cached = statements.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+
+        int stripe = stripe(accountId);
+        long accountVersion = accountVersions.get(stripe);
+        long rulesVersion = ruleVersion.get();
+
+        List<Statement> statement = Collections.unmodifiableList(delegate.generateMonthlyStatement(accountId, yearMonth));
+
+        synchronized (this) {
+            // The month is registered before the versions are checked, while a posting bumps the
+            // version before looking here, so one of them always sees the other
+            monthsByAccount.computeIfAbsent(accountId, id -> new TreeSet<>()).add(key.yearMonth);
+            if (accountVersions.get(stripe) == accountVersion && ruleVersion.get() == rulesVersion) {
+                put(key, statement);
+            } else if (!statements.containsKey(key)) {
+                forgetMonth(key);
+            }
+        }
+        return statement;
+    }
+
+    /**
+     * Range exports go straight to the delegate; they are streamed once rather than re-read.
+     */
+    @Override
+    public void streamStatements(String accountId, String fromYearMonth, String toYearMonth,
+                                 Consumer<Statement> consumer) throws Exception {
+        delegate.streamStatements(accountId, fromYearMonth, toYearMonth, consumer);
+    }
+
+    @Override
+    public void transactionPosted(String accountId, Transaction transaction) {
+        LocalDate date = transaction.getDate();
+        int yearMonth = date.getYear() * 100 + date.getMonthValue();
+
+        accountVersions.incrementAndGet(stripe(accountId));
+        if (!monthsByAccount.containsKey(accountId)) {
+            return;
+        }
+
+        synchronized (this) {
+            NavigableSet<Integer> months = monthsByAccount.get(accountId);
+            if (months == null) {
+                return;
+            }
+            Iterator<Integer> affected = months.tailSet(yearMonth, true).iterator();
+            while (affected.hasNext()) {
+                statements.remove(new Key(accountId, affected.next()));
+                affected.remove();
+            }
+            if (months.isEmpty()) {
+                monthsByAccount.remove(accountId);
+            }
+        }
+    }
+
+    @Override
+    public void interestRuleAdded(InterestRule rule) {
+        // The rule is in effect until the next rule change, if any
+        LocalDate from = rule.getDate();
+        List<InterestRule> laterRules = interestRuleService.getInterestRulesBetween(from.plusDays(1), LocalDate.MAX);
+        int fromMonth = from.getYear() * 100 + from.getMonthValue();
+        int toMonth = Integer.MAX_VALUE;
+        if (!laterRules.isEmpty()) {
+            LocalDate to = laterRules.get(0).getDate().minusDays(1);
+            toMonth = to.getYear() * 100 + to.getMonthValue();
+        }
+
+        ruleVersion.incrementAndGet();
+        if (monthsByAccount.isEmpty()) {
+            return;
+        }
+
+        synchronized (this) {
+            Iterator<Key> keys = statements.keySet().iterator();
+            while (keys.hasNext()) {
+                Key key = keys.next();
+                if (key.yearMonth >= fromMonth && key.yearMonth <= toMonth) {
+                    keys.remove();
+                    forgetMonth(key);
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return statements.size();
+    }
+
+    // The caller has already registered the key's month
+    private void put(Key key, List<Statement> statement) {
+        statements.put(key, statement);
+
+        if (statements.size() > maxEntries) {
+            Iterator<Key> eldest = statements.keySet().iterator();
+            Key evicted = eldest.next();
+            eldest.remove();
+            forgetMonth(evicted);
+        }
+    }
+
+    private void forgetMonth(Key key) {
+        NavigableSet<Integer> months = monthsByAccount.get(key.accountId);
+        if (months != null) {
+            months.remove(key.yearMonth);
+            if (months.isEmpty()) {
+                monthsByAccount.remove(key.accountId);
+            }
+        }
+    }
+
+    private static int stripe(String accountId) {
+        return (accountId.hashCode() & 0x7FFFFFFF) % VERSION_STRIPES;
+    }
+
+    private static class Key {
+        private final String accountId;
+        private final int yearMonth;
+
+        Key(String accountId, int yearMonth) {
+            this.accountId = accountId;
+            this.yearMonth = yearMonth;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return yearMonth == key.yearMonth && accountId.equals(key.accountId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * accountId.hashCode() + yearMonth;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.awesome.gic.services;
+
+import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.interfaces.TransactionHistory;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.InterestRule;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Computes interest on daily end-of-day balances by sweeping once over the
+ * balance checkpoints and interest rule changes of a period, both taken in date order.
+ * Interest postings are credited at the end of their day, so they only start to
+ * earn interest from the following day.
+ */
+public class InterestCalculator {
+    private InterestRuleService interestRuleService;
+
+    public InterestCalculator(InterestRuleService interestRuleService) {
+        this.interestRuleService = interestRuleService;
+    }
+
+    /**
+     * Returns the interest in cents earned by the account from startDate to endDate (both inclusive),
+     * rounded half up to the cent.
+     */
+    public long calculateInterest(Account account, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+
+        Accrual accrual;
+        synchronized (account) {
+            accrual = startAccrual(startDate, endDate, account.getBalanceCentsBefore(startDate));
+            account.forEachDayBetween(startDate, endDate, accrual);
+        }
+        return accrual.closePeriod(endDate);
+    }
+
+    /**
+     * Returns the interest in cents earned by the account in each calendar month from startDate to
+     * endDate (both inclusive), each rounded half up to the cent as a month-end close would post it.
+     * The first and last months only count the days inside the range. The account's checkpoints
+     * are walked once for the whole range, however many months it spans.
+     */
+    public SortedMap<YearMonth, Long> calculateMonthlyInterest(Account account, LocalDate startDate, LocalDate endDate) {
+        SortedMap<YearMonth, Long> interestByMonth = new TreeMap<>();
+        if (startDate.isAfter(endDate)) {
+            return interestByMonth;
+        }
+
+        synchronized (account) {
+            Accrual accrual = startAccrual(startDate, endDate, account.getBalanceCentsBefore(startDate));
+            YearMonth[] month = {YearMonth.from(startDate)};
+            account.forEachDayBetween(startDate, endDate, (epochDay, closingBalanceCents, interestCreditedCents) -> {
+                // Close every month that ended before this day
+                while (month[0].atEndOfMonth().toEpochDay() < epochDay) {
+                    interestByMonth.put(month[0], accrual.closePeriod(month[0].atEndOfMonth()));
+                    month[0] = month[0].plusMonths(1);
+                }
+                accrual.acceptDay(epochDay, closingBalanceCents, interestCreditedCents);
+            });
+
+            YearMonth lastMonth = YearMonth.from(endDate);
+            for (; month[0].isBefore(lastMonth); month[0] = month[0].plusMonths(1)) {
+                interestByMonth.put(month[0], accrual.closePeriod(month[0].atEndOfMonth()));
+            }
+            interestByMonth.put(lastMonth, accrual.closePeriod(endDate));
+        }
+        return interestByMonth;
+    }
+
+    /**
+     * Starts accruing interest from startDate on the given opening balance. The caller feeds
+     * the postings dated up to endDate in date order and closes periods as it goes.
+     */
+    public Accrual startAccrual(LocalDate startDate, LocalDate endDate, long openingBalanceCents) {
+        List<InterestRule> ruleChanges = interestRuleService.getInterestRulesBetween(startDate, endDate);
+        return new Accrual(startDate.toEpochDay(), endDate.toEpochDay() + 1, ruleChanges, openingBalanceCents);
+    }
+
+    /**
+     * Running state of one sweep. Between two consecutive transaction or rule change
+     * dates the balance and rate are constant, so each such span accrues in one step.
+     * It is fed either individual postings or whole-day checkpoints, not both.
+     */
+    public class Accrual implements TransactionHistory.PostingConsumer, TransactionHistory.DayConsumer {
+        private final long sweepEnd;
+        private final List<InterestRule> ruleChanges;
+        private int ruleIndex;
+        private long currentDay;
+        private InterestRule currentRule;
+        private long balance;
+        // Interest credited on currentDay, added to the balance from the next day on
+        private long creditedInterest;
+        // Interest of the open period, accumulated in fractional cents and rounded when it closes
+        private double periodInterest;
+
+        private Accrual(long sweepStart, long sweepEnd, List<InterestRule> ruleChanges, long openingBalanceCents) {
+            this.sweepEnd = sweepEnd;
+            this.ruleChanges = ruleChanges;
+            this.currentDay = sweepStart;
+            this.balance = openingBalanceCents;
+            resolveRule();
+        }
+
+        @Override
+        public void accept(long epochDay, char type, long signedAmountCents) {
+            advanceTo(epochDay);
+            if (type == 'I') {
+                creditedInterest += signedAmountCents;
+            } else {
+                balance += signedAmountCents;
+            }
+        }
+
+        @Override
+        public void acceptDay(long epochDay, long closingBalanceCents, long interestCreditedCents) {
+            advanceTo(epochDay);
+            balance = closingBalanceCents - interestCreditedCents;
+            creditedInterest += interestCreditedCents;
+        }
+
+        /**
+         * Accrues through the end of lastDay and returns the interest in cents earned since
+         * the previous period closed, rounded half up to the cent.
+         */
+        public long closePeriod(LocalDate lastDay) {
+            advanceTo(lastDay.toEpochDay() + 1);
+            long interest = Math.round(periodInterest);
+            periodInterest = 0.0;
+            return interest;
+        }
+
+        private void advanceTo(long day) {
+            while (currentDay < day) {
+                long nextDay = day;
+                if (ruleIndex < ruleChanges.size() && ruleChanges.get(ruleIndex).getDate().toEpochDay() < nextDay) {
+                    nextDay = ruleChanges.get(ruleIndex).getDate().toEpochDay();
+                }
+                if (creditedInterest != 0) {
+                    nextDay = currentDay + 1;
+                }
+
+                if (currentRule != null) {
+                    periodInterest += (balance * currentRule.getRate() / 100.0 * (nextDay - currentDay)) / 365.0;
+                }
+                balance += creditedInterest;
+                creditedInterest = 0;
+
+                currentDay = nextDay;
+                if (currentDay < sweepEnd) {
+                    resolveRule();
+                }
+            }
+        }
+
+        // Picks the rule in effect on currentDay
+        private void resolveRule() {
+            if (ruleIndex < ruleChanges.size() && ruleChanges.get(ruleIndex).getDate().toEpochDay() == currentDay) {
+                currentRule = ruleChanges.get(ruleIndex);
+                ruleIndex++;
+            } else {
+                currentRule = interestRuleService.getApplicableInterestRule(LocalDate.ofEpochDay(currentDay));
+            }
+        }
+    }
+}
@@ -1,19 +1,39 @@
 package com.awesome.gic.services;
 
 import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.models.DateCodec;
 import com.awesome.gic.models.InterestRule;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class InterestRuleServiceImpl implements InterestRuleService {
-    private List<InterestRule> interestRules;
+    // Rules keyed by effective date; at most one rule per date
+    private ConcurrentNavigableMap<LocalDate, InterestRule> interestRules;
+    private List<LedgerListener> listeners;
+    private volatile LedgerListener writeAheadLog;
 
     public InterestRuleServiceImpl() {
-        interestRules = new ArrayList<>();
+        interestRules = new ConcurrentSkipListMap<>();
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+    public void addLedgerListener(LedgerListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the log, e.g. a journal, that records every rule before it takes effect. When the
+     * log fails to record a rule, the rule is not added and the failure is rethrown.
+     */
+    public void setWriteAheadLog(LedgerListener writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
     }
 
     @Override
@@ -24,47 +44,65 @@ public class InterestRuleServiceImpl implements InterestRuleService {
 
         LocalDate date = parseDate(dateStr);
 
-        // Remove existing rule on the same date if any
-        interestRules.removeIf(rule -> rule.getDate().equals(date));
-
-        // Add new rule
+        // Replaces the existing rule on the same date if any
         InterestRule rule = new InterestRule(date, ruleId, rate);
-        interestRules.add(rule);
+        // Rules are logged and put one at a time, so the log and the map agree on which rule of a date is last
+        synchronized (interestRules) {
+            LedgerListener log = writeAheadLog;
+            if (log != null) {
+                log.interestRuleAdded(rule);
+            }
+            interestRules.put(date, rule);
 
-        // Sort by date
-        Collections.sort(interestRules);
+            for (LedgerListener listener : listeners) {
+                listener.interestRuleAdded(rule);
+            }
+        }
+
+        LedgerListener log = writeAheadLog;
+        if (log != null) {
+            log.awaitDurable();
+        }
+    }
+
+    /**
+     * Puts back a previously accepted rule, e.g. from a journal, without validating it or notifying listeners.
+     */
+    public void restoreInterestRule(InterestRule rule) {
+        interestRules.put(rule.getDate(), rule);
     }
 
     @Override
     public List<InterestRule> getAllInterestRules() {
-        return interestRules;
+        // Waits for a rule being added, so a rule already logged is never missing from the list
+        synchronized (interestRules) {
+            return new ArrayList<>(interestRules.values());
+        }
     }
 
     @Override
-    public InterestRule getApplicableInterestRule(LocalDate date) {
-        InterestRule applicableRule = null;
-
-        for (InterestRule rule : interestRules) {
-            if (!rule.getDate().isAfter(date)) {
-                applicableRule = rule;
-            } else {
-                break;
-            }
+    public List<InterestRule> getInterestRulesBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new ArrayList<>();
         }
+        return new ArrayList<>(interestRules.subMap(from, true, to, true).values());
+    }
 
-        return applicableRule;
+    @Override
+    public InterestRule getApplicableInterestRule(LocalDate date) {
+        Map.Entry<LocalDate, InterestRule> entry = interestRules.floorEntry(date);
+        return entry != null ? entry.getValue() : null;
     }
 
     private LocalDate parseDate(String dateStr) throws Exception {
-        if (!dateStr.matches("\\d{8}")) {
+        if (!DateCodec.isDigits(dateStr, 8)) {
             throw new Exception("Date should be in YYYYMMdd format");
         }
 
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
-            return LocalDate.parse(dateStr, formatter);
-        } catch (Exception e) {
+        long epochDay = DateCodec.parseEpochDay(dateStr);
+        if (epochDay == DateCodec.INVALID) {
             throw new Exception("Invalid date format. Please use YYYYMMdd");
         }
+        return LocalDate.ofEpochDay(epochDay);
     }
 }
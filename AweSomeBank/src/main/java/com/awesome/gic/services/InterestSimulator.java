@@ -0,0 +1,123 @@
+package com.awesome.gic.services;
+
+import com.awesome.gic.interfaces.AccountService;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.DateCodec;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.InterestSimulationResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes what every account would earn between two dates under a candidate set of interest
+ * rules, without touching the live rules or posting anything. The candidate rules get their own
+ * rule service and calculator, and accounts are split into batches that run in parallel on a
+ * fork/join pool, so several scenarios can be compared against the live book in turn.
+ */
+public class InterestSimulator {
+    private static final int BATCH_SIZE = 256;
+
+    private AccountService accountService;
+    private ForkJoinPool pool;
+
+    public InterestSimulator(AccountService accountService) {
+        this(accountService, ForkJoinPool.commonPool());
+    }
+
+    public InterestSimulator(AccountService accountService, ForkJoinPool pool) {
+        this.accountService = accountService;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the interest each account would earn from startDate to endDate (both inclusive,
+     * YYYYMMdd) under the given rules. Interest is rounded half up to the cent per calendar
+     * month, as it would be posted, and the months in the range are summed per account.
+     */
+    public InterestSimulationResult simulate(List<InterestRule> rules, String startDate, String endDate) throws Exception {
+        LocalDate start = parseDate(startDate);
+        LocalDate end = parseDate(endDate);
+        if (start.isAfter(end)) {
+            throw new Exception("Start date should not be after end date");
+        }
+
+        InterestRuleServiceImpl scenarioRules = new InterestRuleServiceImpl();
+        for (InterestRule rule : rules) {
+            if (rule.getRate() <= 0 || rule.getRate() >= 100) {
+                throw new Exception("Interest rate should be greater than 0 and less than 100");
+            }
+            scenarioRules.restoreInterestRule(rule);
+        }
+
+        long startTime = System.nanoTime();
+        List<Account> accounts = accountService.getAllAccounts();
+        long[] interest = new long[accounts.size()];
+        InterestCalculator calculator = new InterestCalculator(scenarioRules);
+        if (!accounts.isEmpty()) {
+            pool.invoke(new Batch(accounts, calculator, start, end, interest, 0, accounts.size()));
+        }
+
+        Map<String, Long> interestByAccount = new TreeMap<>();
+        long totalInterest = 0;
+        for (int i = 0; i < interest.length; i++) {
+            interestByAccount.put(accounts.get(i).getAccountId(), interest[i]);
+            totalInterest += interest[i];
+        }
+        return new InterestSimulationResult(start, end, interestByAccount, totalInterest,
+                System.nanoTime() - startTime);
+    }
+
+    private static LocalDate parseDate(String dateStr) throws Exception {
+        LocalDate date = DateCodec.parseDate(dateStr);
+        if (date == null) {
+            throw new Exception("Date should be in YYYYMMdd format");
+        }
+        return date;
+    }
+
+    // Each batch writes only its own slots of the shared result array
+    private static class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Account> accounts;
+        private final InterestCalculator calculator;
+        private final LocalDate start;
+        private final LocalDate end;
+        private final long[] interest;
+        private final int from;
+        private final int to;
+
+        Batch(List<Account> accounts, InterestCalculator calculator, LocalDate start, LocalDate end,
+              long[] interest, int from, int to) {
+            this.accounts = accounts;
+            this.calculator = calculator;
+            this.start = start;
+            this.end = end;
+            this.interest = interest;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    long total = 0;
+                    for (long month : calculator.calculateMonthlyInterest(accounts.get(i), start, end).values()) {
+                        total += month;
+                    }
+                    interest[i] = total;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(accounts, calculator, start, end, interest, from, middle),
+                    new Batch(accounts, calculator, start, end, interest, middle, to));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.awesome.gic.services;
+
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A consistent view of the ledger as of the moment it was started, read while postings go on.
+ * A posting made after the start first saves the transactions each of its accounts had, unless
+ * the cut has already read that account, so the cut reads every account as it was at the start.
+ * Transfers posted after the start are left out of the cut's transfers.
+ */
+public class LedgerCut {
+    // Marks an account the cut has read, so later postings to it save nothing
+    private static final List<Transaction> READ = new ArrayList<>(0);
+
+    private final Map<Account, List<Transaction>> savedTransactions;
+    private final Set<String> laterTransfers;
+
+    LedgerCut() {
+        savedTransactions = new ConcurrentHashMap<>();
+        laterTransfers = ConcurrentHashMap.newKeySet();
+    }
+
+    // Called under the account lock before a posting changes the account
+    void beforePosting(Account account) {
+        savedTransactions.computeIfAbsent(account, Account::getTransactions);
+    }
+
+    // Called under both account locks before a transfer is linked
+    void beforeTransfer(Transfer transfer) {
+        laterTransfers.add(transfer.getDebit().getTransactionId());
+    }
+
+    /**
+     * Returns the transactions the account had when the cut started. Each account should be
+     * read once; the cut stops tracking it afterwards.
+     */
+    public List<Transaction> getTransactions(Account account) {
+        synchronized (account) {
+            List<Transaction> saved = savedTransactions.put(account, READ);
+            return saved != null && saved != READ ? saved : account.getTransactions();
+        }
+    }
+
+    /**
+     * Returns whether the transfer was posted before the cut started.
+     */
+    public boolean includes(Transfer transfer) {
+        return !laterTransfers.contains(transfer.getDebit().getTransactionId());
+    }
+}
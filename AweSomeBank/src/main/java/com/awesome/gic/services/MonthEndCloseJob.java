@@ -0,0 +1,130 @@
+package com.awesome.gic.services;
+
+import com.awesome.gic.interfaces.AccountService;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.DateCodec;
+import com.awesome.gic.models.MonthEndCloseResult;
+import com.awesome.gic.models.Transaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closes a month for every account: computes the month's interest and posts it as an
+ * I transaction dated the last day of the month. Accounts are split into batches that
+ * run in parallel on a fork/join pool. Closing a month twice posts nothing the second time.
+ */
+public class MonthEndCloseJob {
+    private static final int BATCH_SIZE = 256;
+    private static final int PROGRESS_STEPS = 10;
+
+    private AccountService accountService;
+    private TransactionServiceImpl transactionService;
+    private ForkJoinPool pool;
+
+    public MonthEndCloseJob(AccountService accountService, TransactionServiceImpl transactionService) {
+        this(accountService, transactionService, ForkJoinPool.commonPool());
+    }
+
+    public MonthEndCloseJob(AccountService accountService, TransactionServiceImpl transactionService, ForkJoinPool pool) {
+        this.accountService = accountService;
+        this.transactionService = transactionService;
+        this.pool = pool;
+    }
+
+    public interface ProgressListener {
+        void progress(int closedAccounts, int totalAccounts);
+    }
+
+    public MonthEndCloseResult close(String yearMonth, ProgressListener listener) throws Exception {
+        YearMonth month = DateCodec.parseYearMonth(yearMonth);
+        if (month == null) {
+            throw new Exception("Year and month should be in YYYYMM format");
+        }
+
+        LocalDate startOfMonth = month.atDay(1);
+        LocalDate endOfMonth = month.atEndOfMonth();
+
+        long startTime = System.nanoTime();
+        List<Account> accounts = accountService.getAllAccounts();
+        CloseRun run = new CloseRun(accounts, startOfMonth, endOfMonth, listener);
+        if (!accounts.isEmpty()) {
+            pool.invoke(run.new Batch(0, accounts.size()));
+        }
+
+        return new MonthEndCloseResult(yearMonth, accounts.size(), run.posted.get(),
+                run.totalInterest.sum(), System.nanoTime() - startTime);
+    }
+
+    private class CloseRun {
+        private final List<Account> accounts;
+        private final LocalDate startOfMonth;
+        private final LocalDate endOfMonth;
+        private final ProgressListener listener;
+        private final AtomicInteger closed = new AtomicInteger();
+        private final AtomicInteger reportedSteps = new AtomicInteger();
+        private final AtomicInteger posted = new AtomicInteger();
+        private final LongAdder totalInterest = new LongAdder();
+
+        CloseRun(List<Account> accounts, LocalDate startOfMonth, LocalDate endOfMonth, ProgressListener listener) {
+            this.accounts = accounts;
+            this.startOfMonth = startOfMonth;
+            this.endOfMonth = endOfMonth;
+            this.listener = listener;
+        }
+
+        private void closeAccounts(int from, int to) {
+            for (int i = from; i < to; i++) {
+                Transaction interest = transactionService.postMonthlyInterest(accounts.get(i), startOfMonth, endOfMonth);
+                if (interest != null) {
+                    posted.incrementAndGet();
+                    totalInterest.add(interest.getAmountCents());
+                }
+            }
+            reportProgress(closed.addAndGet(to - from));
+        }
+
+        // Reports each time another tenth of the accounts is done
+        private void reportProgress(int done) {
+            if (listener == null) {
+                return;
+            }
+            int step = (int) ((long) done * PROGRESS_STEPS / accounts.size());
+            int reported = reportedSteps.get();
+            while (step > reported) {
+                if (reportedSteps.compareAndSet(reported, step)) {
+                    listener.progress(done, accounts.size());
+                    return;
+                }
+                reported = reportedSteps.get();
+            }
+        }
+
+        private class Batch extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+
+            Batch(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= BATCH_SIZE) {
+                    closeAccounts(from, to);
+                    return;
+                }
+                int middle = (from + to) >>> 1;
+                invokeAll(new Batch(from, middle), new Batch(middle, to));
+            }
+        }
+    }
+}
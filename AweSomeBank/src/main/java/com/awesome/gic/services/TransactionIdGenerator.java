@@ -0,0 +1,87 @@
+package com.awesome.gic.services;
+
+import com.awesome.gic.models.Transaction;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out transaction IDs of the form yyyyMMdd-NN, numbered per day starting at 01.
+ * Sequence numbers past 99 simply use more digits.
+ */
+public class TransactionIdGenerator {
+    private ConcurrentMap<LocalDate, AtomicInteger> counters;
+
+    public TransactionIdGenerator() {
+        counters = new ConcurrentHashMap<>();
+    }
+
+    public String nextId(LocalDate date) {
+        return formatId(date, nextSequence(date));
+    }
+
+    public int nextSequence(LocalDate date) {
+        return counter(date).incrementAndGet();
+    }
+
+    /**
+     * Reserves a block of consecutive sequence numbers for the given date and returns the first one.
+     */
+    public int reserveSequences(LocalDate date, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be greater than zero");
+        }
+        return counter(date).getAndAdd(count) + 1;
+    }
+
+    /**
+     * Gives back the unused end of a block handed out by reserveSequences, from first to last,
+     * provided no later sequence number has been handed out for the date since. Returns true
+     * if the numbers were given back and will be handed out again.
+     */
+    public boolean releaseSequences(LocalDate date, int first, int last) {
+        return counter(date).compareAndSet(last, first - 1);
+    }
+
+    /**
+     * Makes sure the next sequence number handed out for the date is above the given one.
+     */
+    public void advanceTo(LocalDate date, int sequence) {
+        counter(date).accumulateAndGet(sequence, Math::max);
+    }
+
+    public int getCount(LocalDate date) {
+        AtomicInteger counter = counters.get(date);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Returns the last sequence number handed out for every date that has one, in date order.
+     */
+    public SortedMap<LocalDate, Integer> getCounts() {
+        SortedMap<LocalDate, Integer> counts = new TreeMap<>();
+        for (Map.Entry<LocalDate, AtomicInteger> entry : counters.entrySet()) {
+            if (entry.getValue().get() > 0) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return counts;
+    }
+
+    public static String formatId(LocalDate date, int sequence) {
+        return Transaction.formatId(date, sequence);
+    }
+
+    private AtomicInteger counter(LocalDate date) {
+        AtomicInteger counter = counters.get(date);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(date, d -> new AtomicInteger());
+        }
+        return counter;
+    }
+}
@@ -2,288 +2,598 @@ package com.awesome.gic.services;
 
 import com.awesome.gic.interfaces.AccountService;
 import com.awesome.gic.interfaces.InterestRuleService;
+import com.awesome.gic.interfaces.LedgerListener;
 import com.awesome.gic.interfaces.TransactionService;
 import com.awesome.gic.models.Account;
-import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.DateCodec;
+import com.awesome.gic.models.ImportResult;
+import com.awesome.gic.models.Money;
 import com.awesome.gic.models.Statement;
 import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 public class TransactionServiceImpl implements TransactionService {
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile("\\s+");
+    private static final int IMPORT_BATCH_SIZE = 1024;
+
     private AccountService accountService;
     private InterestRuleService interestRuleService;
-    private Map<LocalDate, Integer> transactionCounts;
-    private DateTimeFormatter dateFormatter;
+    private InterestCalculator interestCalculator;
+    private TransactionIdGenerator transactionIdGenerator;
+    private List<LedgerListener> listeners;
+    private volatile LedgerListener writeAheadLog;
+    // Every transfer, indexed under the IDs of both its legs
+    private ConcurrentMap<String, Transfer> transfers;
+    // The cut being read, e.g. by a snapshot, or null
+    private volatile LedgerCut cut;
 
     public TransactionServiceImpl(AccountService accountService, InterestRuleService interestRuleService) {
         this.accountService = accountService;
         this.interestRuleService = interestRuleService;
-        this.transactionCounts = new HashMap<>();
-        this.dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+        this.interestCalculator = new InterestCalculator(interestRuleService);
+        this.transactionIdGenerator = new TransactionIdGenerator();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.transfers = new ConcurrentHashMap<>();
     }
 
     @Override
     public Transaction createTransaction(String dateStr, String accountId, String type, double amount) throws Exception {
-        // Validate date format
-        if (!dateStr.matches("\\d{8}")) {
-            throw new Exception("Date should be in YYYYMMdd format");
+        LocalDate date = parseDate(dateStr);
+        validateType(type);
+        long amountCents = parseAmount(amount);
+        Transaction transaction = post(accountId, date, type, amountCents, null);
+        awaitDurable();
+        return transaction;
+    }
+
+    // Posts a validated record, numbered from the reserved block if there is one, otherwise with the next free ID
+    private Transaction post(String accountId, LocalDate date, String type, long amountCents, SequenceBlock block)
+            throws Exception {
+        // Check if account exists, if not create a new one
+        Account account = accountService.getAccount(accountId);
+        if (account == null) {
+            account = accountService.createAccount(accountId);
         }
 
-        LocalDate date = parseDate(dateStr);
+        // Validate and post under the account lock so concurrent withdrawals cannot overdraw
+        synchronized (account) {
+            if (type.equalsIgnoreCase("W")) {
+                validateWithdrawal(account, date, amountCents);
+            }
+
+            // Generate transaction ID
+            String transactionId = block != null ? Transaction.formatId(date, block.next++) : generateTransactionId(date);
+
+            // Create and add transaction
+            Transaction transaction = Transaction.ofCents(date, transactionId, type.toUpperCase(), amountCents);
+            LedgerCut current = cut;
+            if (current != null) {
+                current.beforePosting(account);
+            }
+            logTransaction(accountId, transaction);
+            account.addTransaction(transaction);
+            notifyTransactionPosted(accountId, transaction);
 
-        // Validate type
+            return transaction;
+        }
+    }
+
+    private void validateType(String type) throws Exception {
         if (!type.equalsIgnoreCase("D") && !type.equalsIgnoreCase("W")) {
             throw new Exception("Transaction type should be D for deposit or W for withdrawal");
         }
+    }
+
+    /**
+     * Moves the amount from one account to another as a W on the source and a D on the target,
+     * both dated the given date and numbered with two consecutive IDs. Both accounts are locked
+     * for the whole transfer, always in lock order, so either both legs post or neither does,
+     * and opposite transfers between the same accounts cannot deadlock. A missing target
+     * account is only created once the transfer has been validated.
+     */
+    @Override
+    public Transfer createTransfer(String dateStr, String fromAccountId, String toAccountId, double amount) throws Exception {
+        LocalDate date = parseDate(dateStr);
+        long amountCents = parseAmount(amount);
+        if (fromAccountId.equals(toAccountId)) {
+            throw new Exception("Cannot transfer to the same account");
+        }
+
+        Account from = accountService.getAccount(fromAccountId);
+        if (from == null) {
+            throw new Exception("Account " + fromAccountId + " not found");
+        }
+        Transfer transfer = transfer(from, toAccountId, date, amountCents);
+        awaitDurable();
+        return transfer;
+    }
+
+    private Transfer transfer(Account from, String toAccountId, LocalDate date, long amountCents) throws Exception {
+        Account to = accountService.getAccount(toAccountId);
+        if (to == null) {
+            synchronized (from) {
+                validateWithdrawal(from, date, amountCents);
+                // Created after the source, the new target ranks after it, so locking it here keeps the order
+                to = accountService.createAccount(toAccountId);
+                synchronized (to) {
+                    return postTransfer(from, to, date, amountCents);
+                }
+            }
+        }
+
+        Account first = from.getLockOrder() < to.getLockOrder() ? from : to;
+        Account second = first == from ? to : from;
+        synchronized (first) {
+            synchronized (second) {
+                validateWithdrawal(from, date, amountCents);
+                return postTransfer(from, to, date, amountCents);
+            }
+        }
+    }
+
+    // Posts both legs of a validated transfer; the caller holds both account locks
+    private Transfer postTransfer(Account from, Account to, LocalDate date, long amountCents) {
+        int sequence = transactionIdGenerator.reserveSequences(date, 2);
+        Transaction debit = Transaction.ofCents(date, Transaction.formatId(date, sequence), "W", amountCents);
+        Transaction credit = Transaction.ofCents(date, Transaction.formatId(date, sequence + 1), "D", amountCents);
+        Transfer transfer = new Transfer(from.getAccountId(), to.getAccountId(), debit, credit);
+
+        LedgerCut current = cut;
+        if (current != null) {
+            current.beforePosting(from);
+            current.beforePosting(to);
+            current.beforeTransfer(transfer);
+        }
+        LedgerListener log = writeAheadLog;
+        if (log != null) {
+            log.transferPosted(transfer);
+        }
+        from.addTransaction(debit);
+        to.addTransaction(credit);
+        restoreTransferLink(transfer);
+        for (LedgerListener listener : listeners) {
+            listener.transferPosted(transfer);
+        }
+        return transfer;
+    }
+
+    /**
+     * Returns the transfer the transaction is a leg of, or null if it is not part of a transfer.
+     */
+    public Transfer getTransfer(String transactionId) {
+        return transfers.get(transactionId);
+    }
+
+    /**
+     * Returns every transfer posted so far, e.g. for a snapshot.
+     */
+    public List<Transfer> getTransfers() {
+        List<Transfer> result = new ArrayList<>();
+        for (Map.Entry<String, Transfer> entry : transfers.entrySet()) {
+            // Each transfer is indexed under both legs; list it once
+            if (entry.getKey().equals(entry.getValue().getDebit().getTransactionId())) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
 
+    private long parseAmount(double amount) throws Exception {
         // Validate amount
         if (amount <= 0) {
             throw new Exception("Amount must be greater than zero");
         }
 
         // Check if amount has more than 2 decimal places
-        BigDecimal bdAmount = new BigDecimal(amount);
-        bdAmount = bdAmount.setScale(2, RoundingMode.HALF_UP);
-        if (bdAmount.doubleValue() != amount) {
+        if (!Money.hasAtMostTwoDecimals(amount)) {
             throw new Exception("Amount can have at most 2 decimal places");
         }
+        return Money.toCents(amount);
+    }
 
-        // Check if account exists, if not create a new one
-        Account account = accountService.getAccount(accountId);
-        if (account == null) {
-            account = accountService.createAccount(accountId);
-        }
-
-        // Validate withdrawal
-        if (type.equalsIgnoreCase("W") && (account.getBalance() < amount)) {
+    // Validates a withdrawal, including a back-dated one against the balances of every later day
+    private void validateWithdrawal(Account account, LocalDate date, long amountCents) throws Exception {
+        if (account.getBalanceCents() < amountCents) {
             throw new Exception("Insufficient balance for withdrawal");
         }
+        if (account.getWithdrawableCents(date) < amountCents) {
+            throw new Exception("Withdrawal would make a later balance negative");
+        }
+    }
 
-        // Generate transaction ID
-        String transactionId = generateTransactionId(date);
-
-        // Create and add transaction
-        Transaction transaction = new Transaction(date, transactionId, type.toUpperCase(), amount);
-        account.addTransaction(transaction);
+    public void addLedgerListener(LedgerListener listener) {
+        listeners.add(listener);
+    }
 
-        return transaction;
+    /**
+     * Starts a cut of the ledger as it is now, which reads consistently while postings go on.
+     * Only one cut can be open at a time; closeCut must be called once it has been read.
+     */
+    public synchronized LedgerCut openCut() {
+        if (cut != null) {
+            throw new IllegalStateException("A ledger cut is already open");
+        }
+        cut = new LedgerCut();
+        return cut;
     }
 
-    public String generateTransactionId(LocalDate date) {
-        int count = getTransactionCount(date) + 1;
-        transactionCounts.put(date, count);
-        return date.format(dateFormatter) + "-" + String.format("%02d", count);
+    public synchronized void closeCut(LedgerCut ledgerCut) {
+        if (cut == ledgerCut) {
+            cut = null;
+        }
     }
 
-    @Override
-    public int getTransactionCount(LocalDate date) {
-        return transactionCounts.getOrDefault(date, 0);
+    /**
+     * Sets the log, e.g. a journal, that records every posting before it is applied. When the
+     * log fails to record a posting, the posting is not applied and the failure is rethrown.
+     */
+    public void setWriteAheadLog(LedgerListener writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
     }
 
-    @Override
-    public List<Statement> generateMonthlyStatement(String accountId, String yearMonth) {
-        List<Statement> statement = new ArrayList<>();
+    /**
+     * Puts back a previously accepted transaction, e.g. from a journal, without validating it
+     * or notifying listeners. A transaction the account already has, e.g. from a snapshot taken
+     * while it was posted, is not added again. Later IDs for its date continue after its sequence number.
+     */
+    public void restoreTransaction(String accountId, Transaction transaction) {
         Account account = accountService.getAccount(accountId);
-
         if (account == null) {
-            return statement;
+            account = accountService.createAccount(accountId);
         }
-
-        //Check if yearmonth matches format YYYYMM
-        if (!yearMonth.matches("\\d{6}")) {
-            return statement; // Invalid year-month format
+        synchronized (account) {
+            if (!hasTransaction(account, transaction)) {
+                account.addTransaction(transaction);
+            }
         }
 
-        int year = Integer.parseInt(yearMonth.substring(0, 4));
-        int month = Integer.parseInt(yearMonth.substring(4, 6));
-
-        LocalDate startOfMonth = LocalDate.of(year, month, 1);
-        LocalDate endOfMonth = startOfMonth.plusMonths(1).minusDays(1);
+        int sequence = Transaction.parseSequence(transaction.getTransactionId(), transaction.getDate());
+        if (sequence > 0) {
+            transactionIdGenerator.advanceTo(transaction.getDate(), sequence);
+        }
+    }
 
-        // Get all transactions for the month
-        List<Transaction> monthTransactions = new ArrayList<>();
-        for (Transaction transaction : account.getTransactions()) {
-            //System.out.println(transaction.getDate().isBefore(startOfMonth) && !transaction.getDate().isAfter(endOfMonth));
-            if (!transaction.getDate().isBefore(startOfMonth) && !transaction.getDate().isAfter(endOfMonth)) {
-                monthTransactions.add(transaction);
+    private boolean hasTransaction(Account account, Transaction transaction) {
+        for (Transaction existing : account.getTransactionsBetween(transaction.getDate(), transaction.getDate())) {
+            if (existing.getTransactionId().equals(transaction.getTransactionId())) {
+                return true;
             }
         }
+        return false;
+    }
 
-        // Sort transactions by date
-        monthTransactions.sort((t1, t2) -> t1.getDate().compareTo(t2.getDate()));
+    /**
+     * Puts back both legs of a previously accepted transfer, e.g. from a journal, and links them.
+     */
+    public void restoreTransfer(Transfer transfer) {
+        restoreTransaction(transfer.getFromAccountId(), transfer.getDebit());
+        restoreTransaction(transfer.getToAccountId(), transfer.getCredit());
+        restoreTransferLink(transfer);
+    }
 
-        // Calculate running balance and create statement lines
-        //System.out.println("starting balance: " + getStartingBalance(account, startOfMonth));
-        double runningBalance = getStartingBalance(account, startOfMonth);
+    /**
+     * Links the two legs of a transfer whose transactions are already restored, e.g. from a snapshot.
+     */
+    public void restoreTransferLink(Transfer transfer) {
+        transfers.put(transfer.getDebit().getTransactionId(), transfer);
+        transfers.put(transfer.getCredit().getTransactionId(), transfer);
+    }
 
-        for (Transaction transaction : monthTransactions) {
-            if (transaction.getType().equalsIgnoreCase("D")) {
-                runningBalance += transaction.getAmount();
-            } else if (transaction.getType().equalsIgnoreCase("W")) {
-                runningBalance -= transaction.getAmount();
-            } else if (transaction.getType().equalsIgnoreCase("I")) {
-                runningBalance += transaction.getAmount();
-            }
+    /**
+     * Returns the last ID sequence number handed out for every date, e.g. for a snapshot.
+     */
+    public SortedMap<LocalDate, Integer> getTransactionIdCounts() {
+        return transactionIdGenerator.getCounts();
+    }
 
-            //System.out.println("running balance: " + runningBalance);
+    /**
+     * Makes later IDs for the date continue after the given sequence number, e.g. from a snapshot.
+     */
+    public void restoreTransactionIdCount(LocalDate date, int sequence) {
+        transactionIdGenerator.advanceTo(date, sequence);
+    }
 
-            statement.add(new Statement(
-                    transaction.getFormattedDate(),
-                    transaction.getTransactionId(),
-                    transaction.getType(),
-                    transaction.getAmount(),
-                    runningBalance
-            ));
+    // Waits for the write-ahead log to make the postings so far durable; called with no locks held
+    private void awaitDurable() {
+        LedgerListener log = writeAheadLog;
+        if (log != null) {
+            log.awaitDurable();
+        }
+    }
 
+    private void logTransaction(String accountId, Transaction transaction) {
+        LedgerListener log = writeAheadLog;
+        if (log != null) {
+            log.transactionPosted(accountId, transaction);
         }
+    }
 
-        // Calculate and add interest
-        double interest = getMonthlyInterest(account, startOfMonth, endOfMonth);
-        //System.out.println("monthly interest: " + interest);
-        if (interest > 0) {
-            runningBalance += interest;
+    private void notifyTransactionPosted(String accountId, Transaction transaction) {
+        for (LedgerListener listener : listeners) {
+            listener.transactionPosted(accountId, transaction);
+        }
+    }
 
-            statement.add(new Statement(
-                    endOfMonth.format(dateFormatter),
-                    null,
-                    "I",
-                    interest,
-                    runningBalance
-            ));
+    /**
+     * Posts the records in line order, in batches of up to IMPORT_BATCH_SIZE lines. Each batch
+     * reserves one block of IDs per date, sized for its well-formed records of that date, rather
+     * than taking IDs one at a time. Records only take their ID from the block once they pass
+     * validation, so IDs follow line order, and the block's unused end is given back afterwards.
+     */
+    @Override
+    public ImportResult importTransactions(Iterator<String> records) {
+        ImportResult result = new ImportResult();
+        long startTime = System.nanoTime();
+        List<ImportRecord> batch = new ArrayList<>();
+        int lineNumber = 0;
+
+        while (records.hasNext()) {
+            String record = records.next().trim();
+            lineNumber++;
+            if (record.isEmpty()) {
+                continue;
+            }
 
-            //System.out.println("running balance2: " + runningBalance);
+            batch.add(parseRecord(lineNumber, record));
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                postBatch(batch, result);
+                batch.clear();
+            }
         }
+        postBatch(batch, result);
 
-        return statement;
+        result.setElapsedNanos(System.nanoTime() - startTime);
+        return result;
     }
 
-    public double getStartingBalance(Account account, LocalDate startOfMonth) {
-        double balance = 0.0;
-
-        for (Transaction transaction : account.getTransactions()) {
-            if (transaction.getDate().isBefore(startOfMonth)) {
-                if (transaction.getType().equalsIgnoreCase("D") || transaction.getType().equalsIgnoreCase("I")) {
-                    balance += transaction.getAmount();
-                } else if (transaction.getType().equalsIgnoreCase("W")) {
-                    balance -= transaction.getAmount();
-                }
+    private ImportRecord parseRecord(int lineNumber, String record) {
+        ImportRecord parsed = new ImportRecord(lineNumber, record);
+        try {
+            String[] parts = FIELD_SEPARATOR.split(record);
+            if (parts.length != 4) {
+                throw new Exception("Invalid input format");
             }
-        }
 
-        return balance;
+            double amount = Double.parseDouble(parts[3]);
+            parsed.date = parseDate(parts[0]);
+            parsed.accountId = parts[1];
+            validateType(parts[2]);
+            parsed.type = parts[2];
+            parsed.amountCents = parseAmount(amount);
+        } catch (Exception e) {
+            parsed.error = e.getMessage();
+        }
+        return parsed;
     }
 
-    public double getMonthlyInterest(Account account, LocalDate startOfMonth, LocalDate endOfMonth) {
-        // Get all transactions for the account sorted by date
-        List<Transaction> sortedTransactions = new ArrayList<>(account.getTransactions());
-        sortedTransactions.sort((t1, t2) -> t1.getDate().compareTo(t2.getDate()));
+    private void postBatch(List<ImportRecord> batch, ImportResult result) {
+        // Count the well-formed records of each date, then reserve a block of that size per date
+        Map<LocalDate, int[]> counts = new HashMap<>();
+        for (ImportRecord record : batch) {
+            if (record.error == null) {
+                counts.computeIfAbsent(record.date, date -> new int[1])[0]++;
+            }
+        }
+        Map<LocalDate, SequenceBlock> blocks = new HashMap<>();
+        for (Map.Entry<LocalDate, int[]> count : counts.entrySet()) {
+            int first = transactionIdGenerator.reserveSequences(count.getKey(), count.getValue()[0]);
+            blocks.put(count.getKey(), new SequenceBlock(first, first + count.getValue()[0] - 1));
+        }
 
-        // Filter transactions that occur before or during the month
-        List<Transaction> relevantTransactions = new ArrayList<>();
-        for (Transaction t : sortedTransactions) {
-            if (!t.getDate().isAfter(endOfMonth)) {
-                relevantTransactions.add(t);
+        for (ImportRecord record : batch) {
+            if (record.error != null) {
+                result.addRejected(record.lineNumber, record.record, record.error);
+                continue;
+            }
+            try {
+                post(record.accountId, record.date, record.type, record.amountCents, blocks.get(record.date));
+                result.addAccepted();
+            } catch (Exception e) {
+                result.addRejected(record.lineNumber, record.record, e.getMessage());
             }
         }
+        // One commit covers the whole batch
+        awaitDurable();
+
+        // Rejected records leave the end of their date's block unused
+        for (Map.Entry<LocalDate, SequenceBlock> entry : blocks.entrySet()) {
+            SequenceBlock block = entry.getValue();
+            if (block.next <= block.last) {
+                transactionIdGenerator.releaseSequences(entry.getKey(), block.next, block.last);
+            }
+        }
+    }
 
-        // initial balance at the start of the month
-        double initialBalance = getStartingBalance(account, startOfMonth);
+    public String generateTransactionId(LocalDate date) {
+        return transactionIdGenerator.nextId(date);
+    }
 
-        // Create list of dates when balance changes (either transaction or rule change)
-        List<LocalDate> txnDates = new ArrayList<>();
+    @Override
+    public int getTransactionCount(LocalDate date) {
+        return transactionIdGenerator.getCount(date);
+    }
 
-        // Add transaction dates
-        for (Transaction t : relevantTransactions) {
-            if (!t.getDate().isBefore(startOfMonth) && !t.getDate().isAfter(endOfMonth)) {
-                if (!txnDates.contains(t.getDate())) {
-                    txnDates.add(t.getDate());
-                }
-            }
+    @Override
+    public long balanceAsOf(String accountId, String dateStr) throws Exception {
+        LocalDate date = parseDate(dateStr);
+        Account account = accountService.getAccount(accountId);
+        if (account == null) {
+            throw new Exception("Account " + accountId + " not found");
         }
+        return account.getBalanceCentsAsOf(date);
+    }
 
-        // Add interest rule change dates
-        List<InterestRule> allRules = interestRuleService.getAllInterestRules();
-        for (InterestRule rule : allRules) {
-            if (!rule.getDate().isBefore(startOfMonth) && !rule.getDate().isAfter(endOfMonth)) {
-                if (!txnDates.contains(rule.getDate())) {
-                    txnDates.add(rule.getDate());
-                }
-            }
+    @Override
+    public List<Statement> generateMonthlyStatement(String accountId, String yearMonth) {
+        List<Statement> statement = new ArrayList<>();
+        Account account = accountService.getAccount(accountId);
+
+        if (account == null) {
+            return statement;
+        }
+
+        //Check if yearmonth matches format YYYYMM
+        YearMonth statementMonth = DateCodec.parseYearMonth(yearMonth);
+        if (statementMonth == null) {
+            return statement; // Invalid year-month format
         }
 
-        // Add start and end dates if not already included
-        if (!txnDates.contains(startOfMonth)) {
-            txnDates.add(startOfMonth);
+        streamStatements(account, statementMonth, statementMonth, statement::add);
+        return statement;
+    }
+
+    @Override
+    public void streamStatements(String accountId, String fromYearMonth, String toYearMonth,
+                                 Consumer<Statement> consumer) throws Exception {
+        YearMonth first = parseYearMonth(fromYearMonth);
+        YearMonth last = parseYearMonth(toYearMonth);
+        if (first.isAfter(last)) {
+            throw new Exception("Start month should not be after end month");
         }
-        if (!txnDates.contains(endOfMonth.plusDays(1))) {
-            txnDates.add(endOfMonth.plusDays(1));
+
+        Account account = accountService.getAccount(accountId);
+        if (account == null) {
+            return;
         }
 
-        // Sort all dates
-        Collections.sort(txnDates);
+        streamStatements(account, first, last, consumer);
+    }
 
-        // Calculate interest
-        double totalInterest = 0.0;
-        double currentBalance = initialBalance;
-        LocalDate currentDate = startOfMonth;
-        InterestRule currentRule = interestRuleService.getApplicableInterestRule(currentDate.minusDays(1));
+    /**
+     * Walks the account's history once from the first to the last month, passing each
+     * transaction line to the consumer as it goes, followed by the month's computed
+     * interest line unless the month was already closed. Only one month of transactions
+     * is held at a time and interest accrues in the same sweep, so memory stays constant
+     * however long the range is.
+     */
+    private void streamStatements(Account account, YearMonth first, YearMonth last, Consumer<Statement> consumer) {
+        LocalDate startDate = first.atDay(1);
+        LocalDate endDate = last.atEndOfMonth();
+
+        // Transactions are kept in date order, so each month is a contiguous range
+        List<Transaction> monthTransactions;
+        long runningBalance;
+        synchronized (account) {
+            monthTransactions = account.getTransactionsBetween(startDate, first.atEndOfMonth());
+            runningBalance = account.getBalanceCentsBefore(startDate);
+        }
+        InterestCalculator.Accrual accrual = interestCalculator.startAccrual(startDate, endDate, runningBalance);
 
-        for (int i = 0; i < txnDates.size(); i++) {
-            LocalDate nextDate = txnDates.get(i);
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            LocalDate startOfMonth = month.atDay(1);
+            LocalDate endOfMonth = month.atEndOfMonth();
+            if (!month.equals(first)) {
+                monthTransactions = account.getTransactionsBetween(startOfMonth, endOfMonth);
+            }
 
-            // Skip if the date is before our current position
-            if (nextDate.isBefore(currentDate)) {
-                continue;
+            // Calculate running balance and create statement lines
+            boolean interestPosted = false;
+            for (Transaction transaction : monthTransactions) {
+                runningBalance += transaction.getSignedAmountCents();
+                interestPosted |= isMonthEndInterest(transaction, endOfMonth);
+                accrual.accept(transaction.getDate().toEpochDay(),
+                        Character.toUpperCase(transaction.getType().charAt(0)), transaction.getSignedAmountCents());
+
+                consumer.accept(new Statement(
+                        transaction.getFormattedDate(),
+                        transaction.getTransactionId(),
+                        transaction.getType(),
+                        transaction.getAmountCents(),
+                        runningBalance
+                ));
             }
 
-            // Calculate interest for the period from currentDate to nextDate
-            if (currentRule != null && !currentDate.isAfter(endOfMonth)) {
-                long days = findDays(currentDate, nextDate.isAfter(endOfMonth) ? endOfMonth.plusDays(1) : nextDate);
-                if (days > 0) {
-                    double periodInterest = (currentBalance * currentRule.getRate() / 100.0 * days) / 365.0;
-                    totalInterest += periodInterest;
-                }
+            // Once the month is closed its interest already appears as a posted transaction.
+            // Computed interest is not posted, so it does not carry into the next month's balance.
+            long interest = accrual.closePeriod(endOfMonth);
+            if (!interestPosted && interest > 0) {
+                consumer.accept(new Statement(
+                        DateCodec.format(endOfMonth),
+                        null,
+                        "I",
+                        interest,
+                        runningBalance + interest
+                ));
             }
+        }
+    }
+
+    private YearMonth parseYearMonth(String yearMonth) throws Exception {
+        YearMonth month = DateCodec.parseYearMonth(yearMonth);
+        if (month == null) {
+            throw new Exception("Year and month should be in YYYYMM format");
+        }
+        return month;
+    }
+
+    /**
+     * Computes the month's interest for the account and posts it as an I transaction dated the
+     * last day of the month. Returns null if there is no interest or it was already posted.
+     */
+    public Transaction postMonthlyInterest(Account account, LocalDate startOfMonth, LocalDate endOfMonth) {
+        Transaction transaction = applyMonthlyInterest(account, startOfMonth, endOfMonth);
+        if (transaction != null) {
+            awaitDurable();
+        }
+        return transaction;
+    }
 
-            // Update current date
-            currentDate = nextDate;
-
-            // Update balance with any transactions on this date
-            for (Transaction transaction : relevantTransactions) {
-                if (transaction.getDate().equals(currentDate) && !transaction.getDate().isAfter(endOfMonth)) {
-                    if (transaction.getType().equalsIgnoreCase("D") || transaction.getType().equalsIgnoreCase("I")) {
-                        currentBalance += transaction.getAmount();
-                    } else if (transaction.getType().equalsIgnoreCase("W")) {
-                        currentBalance -= transaction.getAmount();
-                    }
+    // Posts the interest under the account lock; the caller waits for the write-ahead log afterwards
+    private Transaction applyMonthlyInterest(Account account, LocalDate startOfMonth, LocalDate endOfMonth) {
+        synchronized (account) {
+            for (Transaction transaction : account.getTransactionsBetween(endOfMonth, endOfMonth)) {
+                if (isMonthEndInterest(transaction, endOfMonth)) {
+                    return null;
                 }
             }
 
-            // Update interest rule if there's a change on this date
-            boolean ruleChanged = false;
-            for (InterestRule rule : allRules) {
-                if (rule.getDate().equals(currentDate)) {
-                    currentRule = rule;
-                    ruleChanged = true;
-                    break;
-                }
+            long interest = interestCalculator.calculateInterest(account, startOfMonth, endOfMonth);
+            if (interest <= 0) {
+                return null;
             }
 
-            // If no specific rule change on this date but we need the applicable rule
-            if (!ruleChanged) {
-                currentRule = interestRuleService.getApplicableInterestRule(currentDate);
+            Transaction transaction = Transaction.ofCents(endOfMonth, generateTransactionId(endOfMonth), "I", interest);
+            LedgerCut current = cut;
+            if (current != null) {
+                current.beforePosting(account);
             }
+            logTransaction(account.getAccountId(), transaction);
+            account.addTransaction(transaction);
+            notifyTransactionPosted(account.getAccountId(), transaction);
+            return transaction;
         }
+    }
+
+    private boolean isMonthEndInterest(Transaction transaction, LocalDate endOfMonth) {
+        return transaction.getType().equalsIgnoreCase("I") && transaction.getDate().equals(endOfMonth);
+    }
 
-        // Round to 2 decimal places
-        BigDecimal bd = new BigDecimal(totalInterest);
-        bd = bd.setScale(2, RoundingMode.HALF_UP);
-        return bd.doubleValue();
+    public double getStartingBalance(Account account, LocalDate startOfMonth) {
+        return Money.toAmount(account.getBalanceCentsBefore(startOfMonth));
+    }
+
+    /**
+     * Returns the interest in cents earned during the month, rounded half up to the cent.
+     */
+    public long getMonthlyInterest(Account account, LocalDate startOfMonth, LocalDate endOfMonth) {
+        return interestCalculator.calculateInterest(account, startOfMonth, endOfMonth);
+    }
+
+    /**
+     * Returns the interest in cents earned in each month from startDate to endDate (both inclusive),
+     * computed in one pass over the account's history.
+     */
+    public SortedMap<YearMonth, Long> getInterestByMonth(Account account, LocalDate startDate, LocalDate endDate) {
+        return interestCalculator.calculateMonthlyInterest(account, startDate, endDate);
     }
 
     public long findDays(LocalDate currentDate, LocalDate endDate) {
@@ -295,10 +605,41 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     public LocalDate parseDate(String dateStr) throws Exception {
-        try {
-            return LocalDate.parse(dateStr, dateFormatter);
-        } catch (Exception e) {
+        if (!DateCodec.isDigits(dateStr, 8)) {
+            throw new Exception("Date should be in YYYYMMdd format");
+        }
+
+        long epochDay = DateCodec.parseEpochDay(dateStr);
+        if (epochDay == DateCodec.INVALID) {
             throw new Exception("Invalid date format. Please use YYYYMMdd");
         }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    // Sequence numbers reserved for one date of an import batch, handed out in line order
+    private static class SequenceBlock {
+        private int next;
+        private final int last;
+
+        SequenceBlock(int first, int last) {
+            this.next = first;
+            this.last = last;
+        }
+    }
+
+    // One import line, either parsed or with the reason it was rejected
+    private static class ImportRecord {
+        private final int lineNumber;
+        private final String record;
+        private LocalDate date;
+        private String accountId;
+        private String type;
+        private long amountCents;
+        private String error;
+
+        ImportRecord(int lineNumber, String record) {
+            this.lineNumber = lineNumber;
+            this.record = record;
+        }
     }
 }
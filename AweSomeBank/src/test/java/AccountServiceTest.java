@@ -1,4 +1,5 @@
 import com.awesome.gic.models.Account;
+import com.awesome.gic.models.ColumnarTransactionHistory;
 import com.awesome.gic.models.Transaction;
 import com.awesome.gic.services.AccountServiceImpl;
 import com.awesome.gic.services.TransactionServiceImpl;
@@ -8,6 +9,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Random;
 import com.awesome.gic.interfaces.AccountService;
 
 public class AccountServiceTest {
@@ -88,4 +90,130 @@ public class AccountServiceTest {
         // Verify balance was updated correctly
         assertEquals(50.0, account.getBalance());
     }
+
+    @Test
+    public void testAccountBalanceHasNoFloatingPointDrift() {
+        Account account = new Account("AC001");
+
+        // 0.1 added ten thousand times drifts away from 1000 when summed as doubles
+        for (int i = 0; i < 10000; i++) {
+            account.addTransaction(new Transaction(LocalDate.of(2025, 4, 5), "20250405-01", "D", 0.1));
+        }
+
+        assertEquals(100000, account.getBalanceCents());
+        assertEquals(1000.0, account.getBalance());
+    }
+
+    @Test
+    public void testAccountTransactionsKeptInDateOrder() {
+        Account account = new Account("AC001");
+
+        account.addTransaction(new Transaction(LocalDate.of(2025, 4, 15), "20250415-01", "D", 100.0));
+        account.addTransaction(new Transaction(LocalDate.of(2025, 3, 10), "20250310-01", "D", 40.0));
+        account.addTransaction(new Transaction(LocalDate.of(2025, 4, 15), "20250415-02", "W", 30.0));
+        account.addTransaction(new Transaction(LocalDate.of(2025, 5, 1), "20250501-01", "W", 10.0));
+
+        // Verify transactions are sorted by date and same-day postings keep their order
+        List<Transaction> transactions = account.getTransactions();
+        assertEquals("20250310-01", transactions.get(0).getTransactionId());
+        assertEquals("20250415-01", transactions.get(1).getTransactionId());
+        assertEquals("20250415-02", transactions.get(2).getTransactionId());
+        assertEquals("20250501-01", transactions.get(3).getTransactionId());
+
+        // Verify balance checkpoints
+        assertEquals(0, account.getBalanceCentsBefore(LocalDate.of(2025, 3, 10)));
+        assertEquals(4000, account.getBalanceCentsBefore(LocalDate.of(2025, 4, 1)));
+        assertEquals(11000, account.getBalanceCentsBefore(LocalDate.of(2025, 5, 1)));
+        assertEquals(10000, account.getBalanceCentsBefore(LocalDate.of(2025, 6, 1)));
+        assertEquals(10000, account.getBalanceCents());
+        assertEquals(11000, account.getBalanceCentsAsOf(LocalDate.of(2025, 4, 15)));
+        assertEquals(11000, account.getBalanceCentsAsOf(LocalDate.of(2025, 4, 30)));
+        assertEquals(10000, account.getBalanceCentsAsOf(LocalDate.of(2025, 5, 1)));
+
+        // Verify month range lookup
+        List<Transaction> april = account.getTransactionsBetween(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30));
+        assertEquals(2, april.size());
+        assertTrue(account.getTransactionsBetween(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28)).isEmpty());
+    }
+
+    @Test
+    public void testColumnarHistoryMatchesListHistory() {
+        AccountService columnarAccountService = new AccountServiceImpl(ColumnarTransactionHistory::new);
+        Account columnar = columnarAccountService.createAccount("AC001");
+        Account list = new Account("AC001");
+
+        LocalDate[] dates = {LocalDate.of(2025, 4, 15), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 4, 15)};
+        String[] types = {"D", "D", "W"};
+        double[] amounts = {100.0, 40.25, 30.0};
+        for (int i = 0; i < dates.length; i++) {
+            Transaction transaction = new Transaction(dates[i], Transaction.formatId(dates[i], i + 1), types[i], amounts[i]);
+            columnar.addTransaction(transaction);
+            list.addTransaction(transaction);
+        }
+
+        // Verify materialized views carry the same data as the original transactions
+        List<Transaction> expected = list.getTransactions();
+        List<Transaction> actual = columnar.getTransactions();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertEquals(expected.get(i).getTransactionId(), actual.get(i).getTransactionId());
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getAmountCents(), actual.get(i).getAmountCents());
+        }
+
+        assertEquals(list.getBalanceCents(), columnar.getBalanceCents());
+        assertEquals(list.getBalanceCentsBefore(LocalDate.of(2025, 4, 15)), columnar.getBalanceCentsBefore(LocalDate.of(2025, 4, 15)));
+        assertEquals(list.getBalanceCentsAsOf(LocalDate.of(2025, 4, 15)), columnar.getBalanceCentsAsOf(LocalDate.of(2025, 4, 15)));
+        assertEquals(2, columnar.getTransactionsBetween(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 30)).size());
+    }
+
+    @Test
+    public void testColumnarHistoryRejectsUnderivableIds() {
+        Account account = new Account("AC001", new ColumnarTransactionHistory());
+        LocalDate date = LocalDate.of(2025, 4, 5);
+
+        assertThrows(IllegalArgumentException.class, () -> account.addTransaction(new Transaction(date, "TXN001", "D", 10.0)));
+        assertThrows(IllegalArgumentException.class, () -> account.addTransaction(new Transaction(date, "20250406-01", "D", 10.0)));
+        assertThrows(IllegalArgumentException.class, () -> account.addTransaction(new Transaction(date, "20250405-001", "D", 10.0)));
+
+        account.addTransaction(new Transaction(date, "20250405-123", "D", 10.0));
+        assertEquals("20250405-123", account.getTransactions().get(0).getTransactionId());
+        assertEquals(0, account.getBalanceCentsBefore(date));
+    }
+
+    @Test
+    public void testWithdrawableCentsMatchesReplayedBalances() {
+        Random random = new Random(42);
+        Account account = new Account("AC001");
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        int[] sequences = new int[60];
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate date = start.plusDays(random.nextInt(60));
+            String type = random.nextInt(3) == 0 ? "W" : "D";
+            double amount = 1 + random.nextInt(100);
+            int sequence = ++sequences[(int) (date.toEpochDay() - start.toEpochDay())];
+            account.addTransaction(new Transaction(date, Transaction.formatId(date, sequence), type, amount));
+
+            LocalDate probe = start.plusDays(random.nextInt(62) - 1);
+            assertEquals(lowestBalanceFrom(account, probe), account.getWithdrawableCents(probe));
+        }
+    }
+
+    // The lowest end-of-day balance from the given date on, replayed from the full history
+    private static long lowestBalanceFrom(Account account, LocalDate date) {
+        long lowest = account.getBalanceCentsBefore(date.plusDays(1));
+        long balance = 0;
+        List<Transaction> transactions = account.getTransactions();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            balance += transaction.getSignedAmountCents();
+            boolean endOfDay = i + 1 == transactions.size() || !transactions.get(i + 1).getDate().equals(transaction.getDate());
+            if (endOfDay && transaction.getDate().isAfter(date)) {
+                lowest = Math.min(lowest, balance);
+            }
+        }
+        return lowest;
+    }
 }
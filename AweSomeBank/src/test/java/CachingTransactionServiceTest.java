@@ -0,0 +1,119 @@
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.CachingTransactionService;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingTransactionServiceTest {
+
+    private InterestRuleServiceImpl interestRuleService;
+    private CachingTransactionService cachingService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        AccountServiceImpl accountService = new AccountServiceImpl();
+        interestRuleService = new InterestRuleServiceImpl();
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+        cachingService = new CachingTransactionService(transactionService, interestRuleService, 3);
+        transactionService.addLedgerListener(cachingService);
+        interestRuleService.addLedgerListener(cachingService);
+
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        cachingService.createTransaction("20230505", "AC001", "D", 100.0);
+        cachingService.createTransaction("20230605", "AC001", "D", 100.0);
+        cachingService.createTransaction("20230505", "AC002", "D", 100.0);
+    }
+
+    @Test
+    public void testRepeatRequestIsServedFromCache() {
+        List<Statement> first = cachingService.generateMonthlyStatement("AC001", "202306");
+        List<Statement> second = cachingService.generateMonthlyStatement("AC001", "202306");
+
+        assertSame(first, second);
+        assertEquals(1, cachingService.getHitCount());
+        assertEquals(1, cachingService.getMissCount());
+    }
+
+    @Test
+    public void testBackDatedPostingInvalidatesOnlyLaterMonthsOfThatAccount() throws Exception {
+        List<Statement> may = cachingService.generateMonthlyStatement("AC001", "202305");
+        List<Statement> june = cachingService.generateMonthlyStatement("AC001", "202306");
+        List<Statement> otherAccount = cachingService.generateMonthlyStatement("AC002", "202305");
+
+        cachingService.createTransaction("20230610", "AC001", "D", 50.0);
+
+        assertSame(may, cachingService.generateMonthlyStatement("AC001", "202305"));
+        assertSame(otherAccount, cachingService.generateMonthlyStatement("AC002", "202305"));
+        List<Statement> newJune = cachingService.generateMonthlyStatement("AC001", "202306");
+        assertNotSame(june, newJune);
+        assertEquals(3, newJune.size());
+    }
+
+    @Test
+    public void testInterestRuleInvalidatesMonthsUntilNextRule() throws Exception {
+        interestRuleService.addInterestRule("20230701", "RULE03", 3.0);
+        List<Statement> may = cachingService.generateMonthlyStatement("AC001", "202305");
+        List<Statement> june = cachingService.generateMonthlyStatement("AC001", "202306");
+        List<Statement> july = cachingService.generateMonthlyStatement("AC001", "202307");
+
+        interestRuleService.addInterestRule("20230615", "RULE02", 2.5);
+
+        assertSame(may, cachingService.generateMonthlyStatement("AC001", "202305"));
+        assertSame(july, cachingService.generateMonthlyStatement("AC001", "202307"));
+        List<Statement> newJune = cachingService.generateMonthlyStatement("AC001", "202306");
+        assertNotSame(june, newJune);
+        assertTrue(newJune.get(newJune.size() - 1).getAmount() > june.get(june.size() - 1).getAmount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsEvicted() {
+        List<Statement> may = cachingService.generateMonthlyStatement("AC001", "202305");
+        cachingService.generateMonthlyStatement("AC001", "202306");
+        cachingService.generateMonthlyStatement("AC002", "202305");
+        cachingService.generateMonthlyStatement("AC001", "202305");
+        cachingService.generateMonthlyStatement("AC002", "202306");
+
+        assertEquals(3, cachingService.size());
+        assertSame(may, cachingService.generateMonthlyStatement("AC001", "202305"));
+        assertEquals(2, cachingService.getHitCount());
+    }
+
+    @Test
+    public void testConcurrentPostingsNeverLeaveStaleStatementsCached() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    cachingService.createTransaction("20230606", "AC001", "D", 1.0);
+                }
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    cachingService.generateMonthlyStatement("AC001", "202306");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Once postings stop, the cached statement must include every one of them
+        List<Statement> june = cachingService.generateMonthlyStatement("AC001", "202306");
+        assertEquals(4001, june.stream().filter(line -> !"I".equals(line.getType())).count());
+    }
+}
@@ -0,0 +1,42 @@
+import com.awesome.gic.models.DateCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateCodecTest {
+
+    @Test
+    void parseEpochDay_matchesLocalDateAcrossYears() {
+        for (LocalDate date = LocalDate.of(1896, 1, 1); date.getYear() < 2105; date = date.plusDays(1)) {
+            String text = date.format(DateTimeFormatter.BASIC_ISO_DATE);
+            assertEquals(date.toEpochDay(), DateCodec.parseEpochDay(text), text);
+            assertEquals(text, DateCodec.format(date));
+        }
+    }
+
+    @Test
+    void parseEpochDay_rejectsInvalidInput() {
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("202312"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("2023-12-25"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("20a31225"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("20042025"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("20230229"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("21000229"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay("20230100"));
+        assertEquals(DateCodec.INVALID, DateCodec.parseEpochDay(null));
+        assertEquals(LocalDate.of(2000, 2, 29), DateCodec.parseDate("20000229"));
+    }
+
+    @Test
+    void parseYearMonth() {
+        assertEquals(YearMonth.of(2023, 6), DateCodec.parseYearMonth("202306"));
+        assertNull(DateCodec.parseYearMonth("202313"));
+        assertNull(DateCodec.parseYearMonth("202300"));
+        assertNull(DateCodec.parseYearMonth("20236"));
+        assertNull(DateCodec.parseYearMonth("2023-6"));
+    }
+}
@@ -106,6 +106,23 @@ public class InterestRuleServiceTest {
         assertEquals("RULE03", rule.getRuleId());
     }
 
+    @Test
+    public void testGetInterestRulesBetween() throws Exception {
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleService.addInterestRule("20230520", "RULE02", 1.9);
+        interestRuleService.addInterestRule("20230615", "RULE03", 2.2);
+
+        // Verify only rules effective within the range are returned, in date order
+        List<InterestRule> rules = interestRuleService.getInterestRulesBetween(LocalDate.of(2023, 5, 1), LocalDate.of(2023, 6, 15));
+        assertEquals(2, rules.size());
+        assertEquals("RULE02", rules.get(0).getRuleId());
+        assertEquals("RULE03", rules.get(1).getRuleId());
+
+        // Verify empty and inverted ranges
+        assertTrue(interestRuleService.getInterestRulesBetween(LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 28)).isEmpty());
+        assertTrue(interestRuleService.getInterestRulesBetween(LocalDate.of(2023, 7, 1), LocalDate.of(2023, 1, 1)).isEmpty());
+    }
+
     private LocalDate parseDate(String dateStr) throws Exception {
         if (!dateStr.matches("\\d{8}")) {
             throw new Exception("Date should be in YYYYMMdd format");
@@ -0,0 +1,102 @@
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.InterestSimulationResult;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.InterestSimulator;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InterestSimulatorTest {
+    private AccountServiceImpl accountService;
+    private InterestRuleServiceImpl interestRuleService;
+    private TransactionServiceImpl transactionService;
+    private InterestSimulator simulator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accountService = new AccountServiceImpl();
+        interestRuleService = new InterestRuleServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+        simulator = new InterestSimulator(accountService);
+
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleService.addInterestRule("20230615", "RULE02", 2.20);
+        for (int i = 0; i < 1000; i++) {
+            String accountId = "AC" + i;
+            transactionService.createTransaction("20230" + (1 + i % 6) + "05", accountId, "D", 100 + i);
+            if (i % 3 == 0) {
+                transactionService.createTransaction("20230620", accountId, "W", 50.0);
+            }
+        }
+    }
+
+    @Test
+    void simulate_withLiveRulesMatchesCalculatedInterest() throws Exception {
+        InterestSimulationResult result = simulator.simulate(interestRuleService.getAllInterestRules(), "20230601", "20230630");
+
+        long expectedTotal = 0;
+        for (Account account : accountService.getAllAccounts()) {
+            long expected = transactionService.getMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30));
+            assertEquals(expected, result.getInterestCents(account.getAccountId()));
+            expectedTotal += expected;
+        }
+        assertEquals(1000, result.getAccountCount());
+        assertEquals(expectedTotal, result.getTotalInterestCents());
+    }
+
+    @Test
+    void simulate_overSeveralMonthsSumsMonthlyInterest() throws Exception {
+        InterestSimulationResult result = simulator.simulate(interestRuleService.getAllInterestRules(), "20230101", "20231231");
+
+        for (Account account : accountService.getAllAccounts()) {
+            long expected = 0;
+            for (long month : transactionService.getInterestByMonth(account, LocalDate.of(2023, 1, 1),
+                    LocalDate.of(2023, 12, 31)).values()) {
+                expected += month;
+            }
+            assertEquals(expected, result.getInterestCents(account.getAccountId()));
+        }
+    }
+
+    @Test
+    void simulate_candidateRulesLeaveLiveRulesUntouched() throws Exception {
+        List<InterestRule> candidate = Collections.singletonList(new InterestRule(LocalDate.of(2023, 1, 1), "CAND01", 3.90));
+
+        InterestSimulationResult live = simulator.simulate(Collections.singletonList(
+                new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 1.95)), "20230101", "20231231");
+        InterestSimulationResult doubled = simulator.simulate(candidate, "20230101", "20231231");
+
+        // Twice the rate earns twice the interest, give or take rounding per account
+        assertTrue(Math.abs(doubled.getTotalInterestCents() - 2 * live.getTotalInterestCents()) <= 1000);
+        assertEquals(2, interestRuleService.getAllInterestRules().size());
+        assertEquals("RULE01", interestRuleService.getApplicableInterestRule(LocalDate.of(2023, 6, 1)).getRuleId());
+    }
+
+    @Test
+    void simulate_withoutRulesEarnsNothing() throws Exception {
+        InterestSimulationResult result = simulator.simulate(Collections.emptyList(), "20230101", "20231231");
+        assertEquals(0, result.getTotalInterestCents());
+        assertEquals(0, result.getInterestCents("AC1"));
+    }
+
+    @Test
+    void simulate_rejectsInvalidInput() {
+        List<InterestRule> rules = Arrays.asList(new InterestRule(LocalDate.of(2023, 1, 1), "RULE01", 0.0));
+
+        Exception exception = assertThrows(Exception.class, () -> simulator.simulate(rules, "20230101", "20231231"));
+        assertEquals("Interest rate should be greater than 0 and less than 100", exception.getMessage());
+        exception = assertThrows(Exception.class, () -> simulator.simulate(Collections.emptyList(), "20231231", "20230101"));
+        assertEquals("Start date should not be after end date", exception.getMessage());
+        exception = assertThrows(Exception.class, () -> simulator.simulate(Collections.emptyList(), "2023011", "20230101"));
+        assertEquals("Date should be in YYYYMMdd format", exception.getMessage());
+    }
+}
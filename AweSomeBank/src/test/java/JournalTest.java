@@ -0,0 +1,263 @@
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+import com.awesome.gic.persistence.Journal;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountServiceImpl accountService;
+    private InterestRuleServiceImpl interestRuleService;
+    private TransactionServiceImpl transactionService;
+
+    private Journal openBank(Path path, int chunkSize) throws IOException {
+        return openBank(path, chunkSize, 0);
+    }
+
+    private Journal openBank(Path path, int chunkSize, long commitDelayMillis) throws IOException {
+        accountService = new AccountServiceImpl();
+        interestRuleService = new InterestRuleServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+
+        Journal journal = Journal.open(path, chunkSize, commitDelayMillis, new LedgerListener() {
+            @Override
+            public void transactionPosted(String accountId, Transaction transaction) {
+                transactionService.restoreTransaction(accountId, transaction);
+            }
+
+            @Override
+            public void transferPosted(Transfer transfer) {
+                transactionService.restoreTransfer(transfer);
+            }
+
+            @Override
+            public void interestRuleAdded(InterestRule rule) {
+                interestRuleService.restoreInterestRule(rule);
+            }
+        });
+        transactionService.setWriteAheadLog(journal);
+        interestRuleService.setWriteAheadLog(journal);
+        return journal;
+    }
+
+    @Test
+    public void testReplayRestoresLedger() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+            interestRuleService.addInterestRule("20230101", "RULE02", 2.0);
+            transactionService.createTransaction("20230505", "AC001", "D", 100.0);
+            transactionService.createTransaction("20230505", "AC002", "D", 50.25);
+            transactionService.createTransaction("20230601", "AC001", "W", 20.5);
+            assertEquals(5, journal.getRecordCount());
+        }
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            assertEquals(5, journal.getRecordCount());
+
+            // Verify accounts, balances and IDs
+            Account account = accountService.getAccount("AC001");
+            assertEquals(79.5, account.getBalance());
+            assertEquals("20230505-01", account.getTransactions().get(0).getTransactionId());
+            assertEquals("20230601-01", account.getTransactions().get(1).getTransactionId());
+            assertEquals(50.25, accountService.getAccount("AC002").getBalance());
+
+            // Verify the rule replacement was replayed in order
+            List<InterestRule> rules = interestRuleService.getAllInterestRules();
+            assertEquals(1, rules.size());
+            assertEquals("RULE02", rules.get(0).getRuleId());
+
+            // Verify numbering continues after the recovered IDs
+            Transaction transaction = transactionService.createTransaction("20230505", "AC003", "D", 10.0);
+            assertEquals("20230505-03", transaction.getTransactionId());
+        }
+    }
+
+    @Test
+    public void testReplayAcrossChunks() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+
+        try (Journal journal = openBank(path, 256)) {
+            for (int i = 0; i < 100; i++) {
+                transactionService.createTransaction("20230505", "AC" + (i % 7), "D", i + 1);
+            }
+        }
+
+        try (Journal journal = openBank(path, 256)) {
+            assertEquals(100, journal.getRecordCount());
+            double total = 0;
+            for (Account account : accountService.getAllAccounts()) {
+                total += account.getBalance();
+            }
+            assertEquals(5050.0, total);
+            assertEquals(100, transactionService.getTransactionCount(LocalDate.of(2023, 5, 5)));
+        }
+    }
+
+    @Test
+    public void testReplayStopsAtCorruptRecord() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            transactionService.createTransaction("20230505", "AC001", "D", 100.0);
+            transactionService.createTransaction("20230506", "AC001", "D", 200.0);
+        }
+
+        // Flip a byte inside the second record's payload
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(5);
+            channel.read(header, 0);
+            int firstRecordLength = 1 + 4 + header.getInt(1) + 4;
+            ByteBuffer corrupt = ByteBuffer.wrap(new byte[]{(byte) 0x7F});
+            channel.write(corrupt, firstRecordLength + 6);
+        }
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            assertEquals(1, journal.getRecordCount());
+            assertEquals(100.0, accountService.getAccount("AC001").getBalance());
+
+            // Appending continues in place of the corrupt record
+            transactionService.createTransaction("20230507", "AC001", "D", 1.0);
+        }
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            assertEquals(2, journal.getRecordCount());
+            assertEquals(101.0, accountService.getAccount("AC001").getBalance());
+        }
+    }
+
+    @Test
+    public void testReplayDiscardsTornTail() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            transactionService.createTransaction("20230505", "AC001", "D", 100.0);
+        }
+
+        // A crash after the kind byte of the next record leaves a zero length and checksum
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(5);
+            channel.read(header, 0);
+            int firstRecordLength = 1 + 4 + header.getInt(1) + 4;
+            channel.write(ByteBuffer.wrap(new byte[]{1}), firstRecordLength);
+        }
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            assertEquals(1, journal.getRecordCount());
+            assertEquals(100.0, accountService.getAccount("AC001").getBalance());
+            transactionService.createTransaction("20230506", "AC001", "D", 1.0);
+        }
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            assertEquals(2, journal.getRecordCount());
+            assertEquals(101.0, accountService.getAccount("AC001").getBalance());
+        }
+    }
+
+    @Test
+    public void testTransferReplaysAsOneRecord() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            transactionService.createTransaction("20230505", "AC001", "D", 100.0);
+            transactionService.createTransfer("20230506", "AC001", "AC002", 40.0);
+            assertEquals(2, journal.getRecordCount());
+        }
+
+        try (Journal journal = openBank(path, Journal.DEFAULT_CHUNK_SIZE)) {
+            assertEquals(2, journal.getRecordCount());
+            assertEquals(60.0, accountService.getAccount("AC001").getBalance());
+            assertEquals(40.0, accountService.getAccount("AC002").getBalance());
+            Transfer transfer = transactionService.getTransfer("20230506-02");
+            assertEquals("AC001", transfer.getFromAccountId());
+            assertEquals("20230506-01", transfer.getDebit().getTransactionId());
+            assertEquals("20230506-03", transactionService.createTransaction("20230506", "AC002", "D", 1.0).getTransactionId());
+        }
+    }
+
+    @Test
+    public void testFailedAppendLeavesPostingUnapplied() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+        StringBuilder longAccountId = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longAccountId.append('A');
+        }
+
+        try (Journal journal = openBank(path, 256)) {
+            transactionService.createTransaction("20230505", "AC001", "D", 100.0);
+            // The record cannot fit in a chunk, so the journal refuses it before it is applied
+            assertThrows(IllegalArgumentException.class, () ->
+                    transactionService.createTransaction("20230505", longAccountId.toString(), "D", 10.0));
+            assertEquals(0, accountService.getAccount(longAccountId.toString()).getTransactionCount());
+            assertEquals(1, journal.getRecordCount());
+        }
+
+        try (Journal journal = openBank(path, 256)) {
+            assertEquals(1, journal.getRecordCount());
+            assertNull(accountService.getAccount(longAccountId.toString()));
+            assertEquals(100.0, accountService.getAccount("AC001").getBalance());
+        }
+    }
+
+    @Test
+    public void testConcurrentPostingsShareGroupCommits() throws Exception {
+        Path path = tempDir.resolve("ledger.journal");
+        int threads = 8;
+        int postingsPerThread = 50;
+
+        try (Journal journal = openBank(path, 4096, 2)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    String accountId = "AC" + t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < postingsPerThread; i++) {
+                            transactionService.createTransaction("20230505", accountId, "D", 1.0);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(threads * postingsPerThread, journal.getRecordCount());
+            // Postings waiting at the same time are acknowledged by one force
+            assertTrue(journal.getCommitCount() < threads * postingsPerThread);
+        }
+
+        try (Journal journal = openBank(path, 4096)) {
+            assertEquals(threads * postingsPerThread, journal.getRecordCount());
+            for (int t = 0; t < threads; t++) {
+                assertEquals(postingsPerThread, accountService.getAccount("AC" + t).getBalance());
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import com.awesome.gic.http.LedgerHttpServer;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerHttpServerTest {
+
+    private AccountServiceImpl accountService;
+    private TransactionServiceImpl transactionService;
+    private LedgerHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accountService = new AccountServiceImpl();
+        InterestRuleServiceImpl interestRuleService = new InterestRuleServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+        server = new LedgerHttpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                transactionService, interestRuleService);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void postTransactionsAndRulesThenStreamStatement() throws Exception {
+        HttpResponse<String> rule = post("/interest-rules", "{\"date\": \"20230101\", \"ruleId\": \"RULE01\", \"rate\": 1.95}");
+        assertEquals(201, rule.statusCode());
+        assertEquals("[{\"date\":\"20230101\",\"ruleId\":\"RULE01\",\"rate\":1.95}]", rule.body());
+
+        HttpResponse<String> deposit = post("/transactions",
+                "{\"date\": \"20230601\", \"account\": \"AC001\", \"type\": \"D\", \"amount\": 150.00}");
+        assertEquals(201, deposit.statusCode());
+        assertEquals("{\"transactionId\":\"20230601-01\",\"date\":\"20230601\",\"account\":\"AC001\",\"type\":\"D\",\"amount\":150.00}",
+                deposit.body());
+
+        HttpResponse<String> statement = get("/statements/AC001?from=202306&to=202307");
+        assertEquals(200, statement.statusCode());
+        assertEquals("[{\"date\":\"20230601\",\"transactionId\":\"20230601-01\",\"type\":\"D\",\"amount\":150.00,\"balance\":150.00},"
+                + "{\"date\":\"20230630\",\"transactionId\":null,\"type\":\"I\",\"amount\":0.24,\"balance\":150.24},"
+                + "{\"date\":\"20230731\",\"transactionId\":null,\"type\":\"I\",\"amount\":0.25,\"balance\":150.25}]",
+                statement.body());
+    }
+
+    @Test
+    void postTransferMovesMoneyBetweenAccounts() throws Exception {
+        post("/transactions", "{\"date\": \"20230601\", \"account\": \"AC001\", \"type\": \"D\", \"amount\": 150.00}");
+
+        HttpResponse<String> transfer = post("/transfers",
+                "{\"date\": \"20230602\", \"from\": \"AC001\", \"to\": \"AC002\", \"amount\": 40.50}");
+        assertEquals(201, transfer.statusCode());
+        assertEquals("{\"debitTransactionId\":\"20230602-01\",\"creditTransactionId\":\"20230602-02\",\"date\":\"20230602\","
+                + "\"from\":\"AC001\",\"to\":\"AC002\",\"amount\":40.50}", transfer.body());
+        assertEquals(10950, accountService.getAccount("AC001").getBalanceCents());
+        assertEquals(4050, accountService.getAccount("AC002").getBalanceCents());
+
+        HttpResponse<String> rejected = post("/transfers",
+                "{\"date\": \"20230602\", \"from\": \"AC002\", \"to\": \"AC001\", \"amount\": 100}");
+        assertEquals(400, rejected.statusCode());
+        assertEquals("{\"error\":\"Insufficient balance for withdrawal\"}", rejected.body());
+        assertEquals(405, get("/transfers").statusCode());
+    }
+
+    @Test
+    void rejectedRequestsReturnServiceMessage() throws Exception {
+        HttpResponse<String> withdrawal = post("/transactions",
+                "{\"date\": \"20230601\", \"account\": \"AC001\", \"type\": \"W\", \"amount\": 10}");
+        assertEquals(400, withdrawal.statusCode());
+        assertEquals("{\"error\":\"Insufficient balance for withdrawal\"}", withdrawal.body());
+
+        assertEquals(400, post("/transactions", "{\"date\": \"20230601\"").statusCode());
+        assertEquals(400, post("/transactions", "{\"date\": \"20230601\", \"type\": \"D\", \"amount\": 1}").statusCode());
+        assertEquals(400, get("/statements/AC001?from=202313").statusCode());
+        assertEquals(405, get("/transactions").statusCode());
+        assertEquals(413, post("/transactions", "{\"date\": \"" + "1".repeat(70_000) + "\"}").statusCode());
+    }
+
+    @Test
+    void concurrentPostingsAllGetDistinctIds() throws Exception {
+        int requests = 500;
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            String body = "{\"date\": \"20230601\", \"account\": \"AC" + (i % 10) + "\", \"type\": \"D\", \"amount\": 1.00}";
+            responses.add(client.sendAsync(request("/transactions").POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.get().statusCode());
+        }
+        assertEquals(requests, transactionService.getTransactionCount(LocalDate.of(2023, 6, 1)));
+        assertEquals(50.0, accountService.getAccount("AC3").getBalance());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return client.send(request(path).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+    }
+}
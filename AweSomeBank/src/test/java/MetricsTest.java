@@ -0,0 +1,195 @@
+import com.awesome.gic.metrics.LatencyHistogram;
+import com.awesome.gic.metrics.MeteredTransactionService;
+import com.awesome.gic.metrics.MeteredTransactionServiceImpl;
+import com.awesome.gic.metrics.MetricsRegistry;
+import com.awesome.gic.metrics.OperationMetrics;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    private MetricsRegistry registry;
+    private InterestRuleServiceImpl interestRuleService;
+    private AccountServiceImpl accountService;
+    private MeteredTransactionServiceImpl transactions;
+    private MeteredTransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+        interestRuleService = new InterestRuleServiceImpl();
+        accountService = new AccountServiceImpl();
+        transactions = new MeteredTransactionServiceImpl(accountService, interestRuleService, registry);
+        transactions.addLedgerListener(registry);
+        transactionService = new MeteredTransactionService(transactions, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    void histogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMaxNanos());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(0.50), 50_000_000 / 16.0);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(0.99), 99_000_000 / 16.0);
+        assertEquals(99_900_000, histogram.getValueAtPercentile(0.999), 99_900_000 / 16.0);
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(0.99));
+    }
+
+    @Test
+    void histogramMergesConcurrentRecorders() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            long value = (t + 1) * 1000L;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(8000, histogram.getMaxNanos());
+        assertEquals(4000, histogram.getValueAtPercentile(0.50), 4000 / 16.0);
+        assertEquals(8000, histogram.getValueAtPercentile(0.99), 8000 / 16.0);
+    }
+
+    @Test
+    void hotAccountTrackingStaysBounded() throws Exception {
+        Transaction deposit = new Transaction(LocalDate.of(2023, 6, 1), "20230601-01", "D", 1.0);
+        for (int i = 0; i < 100; i++) {
+            registry.transactionPosted("HOT", deposit);
+        }
+        for (int i = 0; i < 5 * MetricsRegistry.TRACKED_ACCOUNTS; i++) {
+            registry.transactionPosted("AC" + i, deposit);
+            registry.transactionPosted("WARM", deposit);
+        }
+
+        // Pruning runs in the background, off the posting thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<Map.Entry<String, Long>> hotAccounts = registry.getHotAccounts(Integer.MAX_VALUE);
+        while (hotAccounts.size() > 2 * MetricsRegistry.TRACKED_ACCOUNTS && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            hotAccounts = registry.getHotAccounts(Integer.MAX_VALUE);
+        }
+        assertTrue(hotAccounts.size() <= 2 * MetricsRegistry.TRACKED_ACCOUNTS);
+        assertEquals("WARM", hotAccounts.get(0).getKey());
+        assertEquals(5L * MetricsRegistry.TRACKED_ACCOUNTS, hotAccounts.get(0).getValue());
+        assertEquals("HOT", hotAccounts.get(1).getKey());
+        assertEquals(100L, hotAccounts.get(1).getValue());
+    }
+
+    @Test
+    void streamStatementsLatencyExcludesConsumerTime() throws Exception {
+        for (int day = 1; day <= 5; day++) {
+            transactionService.createTransaction("2023060" + day, "AC001", "D", 10.0);
+        }
+
+        transactionService.streamStatements("AC001", "202306", "202306", line -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        OperationMetrics streamStatements = registry.operation("streamStatements");
+        assertEquals(1, streamStatements.getCount());
+        // Five lines at 20 ms each would be 100 ms if the consumer were counted
+        assertTrue(streamStatements.getMaxMicros() < 50_000);
+    }
+
+    @Test
+    void countsCallsRejectionsAndHotAccounts() throws Exception {
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        for (int i = 0; i < 5; i++) {
+            transactionService.createTransaction("20230601", "AC001", "D", 10.0);
+        }
+        transactionService.createTransaction("20230601", "AC002", "D", 10.0);
+        assertThrows(Exception.class, () -> transactionService.createTransaction("20230601", "AC002", "W", 100.0));
+        assertThrows(Exception.class, () -> transactionService.createTransaction("2023-06-01", "AC002", "D", 1.0));
+        transactionService.generateMonthlyStatement("AC001", "202306");
+
+        OperationMetrics createTransaction = registry.operation("createTransaction");
+        assertEquals(8, createTransaction.getCount());
+        assertEquals(2, createTransaction.getRejectedCount());
+        assertTrue(createTransaction.getP99Micros() > 0);
+        assertEquals(1, registry.operation("generateMonthlyStatement").getCount());
+
+        List<Map.Entry<String, Long>> hotAccounts = registry.getHotAccounts(1);
+        assertEquals(1, hotAccounts.size());
+        assertEquals("AC001", hotAccounts.get(0).getKey());
+        assertEquals(5L, hotAccounts.get(0).getValue());
+        assertTrue(registry.formatReport().contains("hot accounts: AC001=5"));
+    }
+
+    @Test
+    void timesMonthlyInterestOncePerCall() throws Exception {
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        for (int day = 1; day <= 20; day++) {
+            transactionService.createTransaction(String.format("202306%02d", day), "AC001", "D", 100.0);
+        }
+        Account account = accountService.getAccount("AC001");
+
+        transactions.getMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30));
+        assertNotNull(transactions.postMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30)));
+
+        assertEquals(1, registry.operation("getMonthlyInterest").getCount());
+        assertEquals(1, registry.operation("postMonthlyInterest").getCount());
+        // Rule lookups made while computing interest are not timed one by one
+        assertEquals(0, registry.operation("getApplicableInterestRule").getCount());
+    }
+
+    @Test
+    void publishesMBeansAndDumpsReports() throws Exception {
+        transactionService.createTransaction("20230601", "AC001", "D", 10.0);
+        registry.registerMBeans();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MetricsRegistry.JMX_DOMAIN + ":type=ServiceMetrics,name=\"createTransaction\"");
+        assertEquals(1L, server.getAttribute(name, "Count"));
+        assertEquals(0L, server.getAttribute(name, "RejectedCount"));
+
+        List<String> reports = new CopyOnWriteArrayList<>();
+        CountDownLatch dumped = new CountDownLatch(2);
+        registry.startDump(10, report -> {
+            reports.add(report);
+            dumped.countDown();
+        });
+        assertTrue(dumped.await(5, TimeUnit.SECONDS));
+        assertTrue(reports.get(0).contains("createTransaction"));
+
+        registry.close();
+        assertFalse(server.isRegistered(name));
+    }
+}
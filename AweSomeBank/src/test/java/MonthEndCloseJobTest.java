@@ -0,0 +1,97 @@
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.MonthEndCloseResult;
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.MonthEndCloseJob;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonthEndCloseJobTest {
+
+    private AccountServiceImpl accountService;
+    private TransactionServiceImpl transactionService;
+    private MonthEndCloseJob monthEndCloseJob;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        accountService = new AccountServiceImpl();
+        InterestRuleServiceImpl interestRuleService = new InterestRuleServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+        monthEndCloseJob = new MonthEndCloseJob(accountService, transactionService);
+
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleService.addInterestRule("20230520", "RULE02", 1.90);
+        interestRuleService.addInterestRule("20230615", "RULE03", 2.20);
+    }
+
+    @Test
+    public void testClosePostsInterestToEveryAccount() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            transactionService.createTransaction("20230505", "AC" + i, "D", 100.0 + i);
+        }
+        transactionService.createTransaction("20230505", "EMPTY", "D", 10.0);
+        transactionService.createTransaction("20230506", "EMPTY", "W", 10.0);
+
+        LocalDate startOfJune = LocalDate.of(2023, 6, 1);
+        LocalDate endOfJune = LocalDate.of(2023, 6, 30);
+        long expectedTotal = 0;
+        for (Account account : accountService.getAllAccounts()) {
+            expectedTotal += transactionService.getMonthlyInterest(account, startOfJune, endOfJune);
+        }
+
+        AtomicInteger progressReports = new AtomicInteger();
+        MonthEndCloseResult result = monthEndCloseJob.close("202306", (closed, total) -> progressReports.incrementAndGet());
+
+        // Every account except the empty one earns interest
+        assertEquals(1001, result.getAccountCount());
+        assertEquals(1000, result.getPostedCount());
+        assertEquals(expectedTotal, result.getTotalInterestCents());
+        assertTrue(progressReports.get() >= 1 && progressReports.get() <= 10);
+
+        // Verify the interest is part of the balance and shown once on the statement
+        Account account = accountService.getAccount("AC0");
+        long interest = account.getBalanceCents() - 10000;
+        assertTrue(interest > 0);
+        List<Statement> statement = transactionService.generateMonthlyStatement("AC0", "202306");
+        assertEquals(1, statement.size());
+        assertEquals("I", statement.get(0).getType());
+        assertEquals("20230630", statement.get(0).getDate());
+        assertEquals(interest, statement.get(0).getAmountCents());
+        assertEquals(account.getBalanceCents(), statement.get(0).getBalanceCents());
+
+        // Verify closing again posts nothing
+        MonthEndCloseResult again = monthEndCloseJob.close("202306", null);
+        assertEquals(0, again.getPostedCount());
+        assertEquals(10000 + interest, account.getBalanceCents());
+    }
+
+    @Test
+    public void testPostedInterestEarnsInterestFromNextMonth() throws Exception {
+        transactionService.createTransaction("20230505", "AC001", "D", 1000000.0);
+        Account account = accountService.getAccount("AC001");
+        LocalDate startOfJuly = LocalDate.of(2023, 7, 1);
+        LocalDate endOfJuly = LocalDate.of(2023, 7, 31);
+
+        long juneInterestBeforeClose = transactionService.getMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30));
+        long julyInterestBeforeClose = transactionService.getMonthlyInterest(account, startOfJuly, endOfJuly);
+        monthEndCloseJob.close("202306", null);
+
+        // June's own interest does not change once posted, July earns on top of it
+        assertEquals(juneInterestBeforeClose, transactionService.getMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30)));
+        assertTrue(transactionService.getMonthlyInterest(account, startOfJuly, endOfJuly) > julyInterestBeforeClose);
+    }
+
+    @Test
+    public void testCloseInvalidMonth() {
+        assertThrows(Exception.class, () -> monthEndCloseJob.close("2023", null));
+        assertThrows(Exception.class, () -> monthEndCloseJob.close("202313", null));
+    }
+}
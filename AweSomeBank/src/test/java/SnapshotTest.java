@@ -0,0 +1,251 @@
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.SnapshotResult;
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+import com.awesome.gic.persistence.Snapshot;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.LedgerCut;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AccountServiceImpl accountService;
+    private InterestRuleServiceImpl interestRuleService;
+    private TransactionServiceImpl transactionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        accountService = new AccountServiceImpl();
+        interestRuleService = new InterestRuleServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, interestRuleService);
+
+        interestRuleService.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleService.addInterestRule("20230615", "RULE03", 2.20);
+        for (int i = 0; i < 3000; i++) {
+            String accountId = "AC" + i;
+            transactionService.createTransaction("20230601", accountId, "D", 100.0 + i);
+            transactionService.createTransaction("20230626", accountId, "W", 20.25);
+        }
+        // A restored transaction with an ID outside the yyyyMMdd-NN scheme
+        transactionService.restoreTransaction("AC0", new Transaction(LocalDate.of(2023, 6, 2), "LEGACY-1", "D", 5.0));
+    }
+
+    @Test
+    void restoresAccountsRulesAndIdCounters() throws Exception {
+        Path path = tempDir.resolve("bank.snapshot");
+        SnapshotResult written = Snapshot.write(path, accountService, interestRuleService, transactionService, () -> 42);
+        assertEquals(3000, written.getAccountCount());
+        assertEquals(6001, written.getTransactionCount());
+
+        for (int parallelism : new int[] {1, 4}) {
+            AccountServiceImpl accounts = new AccountServiceImpl();
+            InterestRuleServiceImpl rules = new InterestRuleServiceImpl();
+            TransactionServiceImpl transactions = new TransactionServiceImpl(accounts, rules);
+
+            SnapshotResult restored = Snapshot.restore(path, accounts, rules, transactions, parallelism);
+            assertEquals(3000, restored.getAccountCount());
+            assertEquals(6001, restored.getTransactionCount());
+            assertEquals(2, restored.getRuleCount());
+            assertEquals(42, restored.getJournalRecordCount());
+
+            assertEquals(interestRuleService.getAllInterestRules().size(), rules.getAllInterestRules().size());
+            assertEquals(3000, accounts.getAllAccounts().size());
+            for (int i = 0; i < 3000; i += 499) {
+                Account original = accountService.getAccount("AC" + i);
+                Account copy = accounts.getAccount("AC" + i);
+                assertEquals(original.getBalanceCents(), copy.getBalanceCents());
+                assertStatementsEqual(transactionService.generateMonthlyStatement("AC" + i, "202306"),
+                        transactions.generateMonthlyStatement("AC" + i, "202306"));
+            }
+
+            // ID counters continue where the snapshot left off
+            assertEquals("20230601-3001", transactions.createTransaction("20230601", "AC1", "D", 1.0).getTransactionId());
+        }
+    }
+
+    @Test
+    void snapshotTakenDuringPostingsPlusJournalTailRestoresLedger() throws Exception {
+        AccountServiceImpl liveAccounts = new AccountServiceImpl();
+        InterestRuleServiceImpl liveRules = new InterestRuleServiceImpl();
+        TransactionServiceImpl live = new TransactionServiceImpl(liveAccounts, liveRules);
+        List<Object[]> journal = new ArrayList<>();
+        live.setWriteAheadLog(new LedgerListener() {
+            @Override
+            public void transactionPosted(String accountId, Transaction transaction) {
+                synchronized (journal) {
+                    journal.add(new Object[] {accountId, transaction});
+                }
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    live.createTransaction("20230601", "AC" + (thread * 100 + i % 100), "D", 1.0);
+                }
+                return null;
+            }));
+        }
+        Path path = tempDir.resolve("bank.snapshot");
+        SnapshotResult written = Snapshot.write(path, liveAccounts, liveRules, live, () -> {
+            synchronized (journal) {
+                return journal.size();
+            }
+        });
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // The snapshot holds every record it claims to cover, and replaying the rest rebuilds the ledger
+        assertTrue(written.getTransactionCount() >= written.getJournalRecordCount());
+        AccountServiceImpl accounts = new AccountServiceImpl();
+        InterestRuleServiceImpl rules = new InterestRuleServiceImpl();
+        TransactionServiceImpl transactions = new TransactionServiceImpl(accounts, rules);
+        Snapshot.restore(path, accounts, rules, transactions, 2);
+        for (Object[] record : journal.subList((int) written.getJournalRecordCount(), journal.size())) {
+            transactions.restoreTransaction((String) record[0], (Transaction) record[1]);
+        }
+        assertEquals(20000, transactions.getTransactionCount(LocalDate.of(2023, 6, 1)));
+        for (Account account : liveAccounts.getAllAccounts()) {
+            Account restored = accounts.getAccount(account.getAccountId());
+            assertEquals(account.getBalanceCents(), restored.getBalanceCents());
+            assertEquals(account.getTransactionCount(), restored.getTransactionCount());
+        }
+    }
+
+    @Test
+    void snapshotTakenDuringTransfersConservesMoney() throws Exception {
+        long total = 0;
+        for (Account account : accountService.getAllAccounts()) {
+            total += account.getBalanceCents();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    int from = (thread * 7 + i) % 50;
+                    transactionService.createTransfer("20230627", "AC" + from, "AC" + (from + 1 + i % 3), 0.5);
+                }
+                return null;
+            }));
+        }
+        Path path = tempDir.resolve("bank.snapshot");
+        Snapshot.write(path, accountService, interestRuleService, transactionService, () -> 0);
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Either both legs of a transfer are in the snapshot or neither is
+        AccountServiceImpl accounts = new AccountServiceImpl();
+        InterestRuleServiceImpl rules = new InterestRuleServiceImpl();
+        TransactionServiceImpl transactions = new TransactionServiceImpl(accounts, rules);
+        Snapshot.restore(path, accounts, rules, transactions, 2);
+        long restoredTotal = 0;
+        for (Account account : accounts.getAllAccounts()) {
+            restoredTotal += account.getBalanceCents();
+        }
+        assertEquals(total, restoredTotal);
+        for (Transfer transfer : transactions.getTransfers()) {
+            assertEquals(1, accounts.getAccount(transfer.getFromAccountId())
+                    .getTransactionsBetween(transfer.getDebit().getDate(), transfer.getDebit().getDate()).stream()
+                    .filter(transaction -> transaction.getTransactionId().equals(transfer.getDebit().getTransactionId()))
+                    .count());
+        }
+    }
+
+    @Test
+    void postingsGoOnWhileCutIsOpen() throws Exception {
+        Account account = accountService.getAccount("AC1");
+        List<Transaction> before = account.getTransactions();
+        LedgerCut cut = transactionService.openCut();
+        try {
+            assertThrows(IllegalStateException.class, transactionService::openCut);
+            transactionService.createTransaction("20230627", "AC1", "D", 10.0);
+            transactionService.createTransfer("20230627", "AC2", "AC1", 5.0);
+
+            // The cut still reads the account as it was when it started
+            assertEquals(before, cut.getTransactions(account));
+            assertEquals(before.size() + 2, account.getTransactionCount());
+            assertFalse(cut.includes(transactionService.getTransfer("20230627-03")));
+        } finally {
+            transactionService.closeCut(cut);
+        }
+        transactionService.closeCut(transactionService.openCut());
+    }
+
+    @Test
+    void restoresTransferLinks() throws Exception {
+        Transfer transfer = transactionService.createTransfer("20230627", "AC1", "AC2", 10.0);
+        Path path = tempDir.resolve("bank.snapshot");
+        Snapshot.write(path, accountService, interestRuleService, transactionService, () -> 0);
+
+        AccountServiceImpl accounts = new AccountServiceImpl();
+        InterestRuleServiceImpl rules = new InterestRuleServiceImpl();
+        TransactionServiceImpl transactions = new TransactionServiceImpl(accounts, rules);
+        Snapshot.restore(path, accounts, rules, transactions, 2);
+
+        Transfer restored = transactions.getTransfer(transfer.getCredit().getTransactionId());
+        assertEquals("AC1", restored.getFromAccountId());
+        assertEquals("AC2", restored.getToAccountId());
+        assertEquals(transfer.getDebit().getTransactionId(), restored.getDebit().getTransactionId());
+        assertEquals(1000, restored.getCredit().getAmountCents());
+        assertNull(transactions.getTransfer("20230601-01"));
+    }
+
+    @Test
+    void rejectsCorruptSegments() throws Exception {
+        Path path = tempDir.resolve("bank.snapshot");
+        Snapshot.write(path, accountService, interestRuleService, transactionService, () -> 0);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), channel.size() / 2);
+        }
+
+        AccountServiceImpl accounts = new AccountServiceImpl();
+        InterestRuleServiceImpl rules = new InterestRuleServiceImpl();
+        IOException exception = assertThrows(IOException.class, () ->
+                Snapshot.restore(path, accounts, rules, new TransactionServiceImpl(accounts, rules), 2));
+        assertTrue(exception.getMessage().contains("corrupt"));
+    }
+
+    private static void assertStatementsEqual(List<Statement> expected, List<Statement> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getTransactionId(), actual.get(i).getTransactionId());
+            assertEquals(expected.get(i).getAmountCents(), actual.get(i).getAmountCents());
+            assertEquals(expected.get(i).getBalanceCents(), actual.get(i).getBalanceCents());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import com.awesome.gic.models.Statement;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.output.StatementRenderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementRendererTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void statementLinesMatchConsoleFormat() throws Exception {
+        long[][] amounts = {{5, 5}, {12345, -99}, {100, -100000}, {99999999, 123456789}, {0, -5}};
+        StringBuilder expected = new StringBuilder("Account: AC001\n| Date     | Txn Id      | Type | Amount | Balance |\n");
+
+        Path file = tempDir.resolve("statement.txt");
+        try (StatementRenderer renderer = StatementRenderer.toFile(file)) {
+            renderer.writeStatementHeader("AC001");
+            for (long[] amount : amounts) {
+                Statement line = new Statement("20230601", amount[0] == 0 ? null : "20230601-01", "D", amount[0], amount[1]);
+                renderer.accept(line);
+                expected.append(String.format("| %s | %-11s | %-4s | %6.2f | %7.2f |\n", line.getDate(),
+                        line.getTransactionId() != null ? line.getTransactionId() : "", line.getType(),
+                        line.getAmount(), line.getBalance()));
+            }
+            assertEquals(amounts.length, renderer.getLineCount());
+        }
+
+        assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void transactionsMatchConsoleFormat() throws Exception {
+        Transaction deposit = new Transaction(LocalDate.of(2023, 6, 1), "20230601-01", "D", 150.0);
+        Transaction withdrawal = new Transaction(LocalDate.of(2023, 6, 26), "20230626-01", "W", 20.5);
+
+        Path file = tempDir.resolve("transactions.txt");
+        try (StatementRenderer renderer = StatementRenderer.toFile(file)) {
+            renderer.writeTransactions("AC001", Arrays.asList(deposit, withdrawal));
+        }
+
+        String expected = "Account: AC001\n| Date     | Txn Id      | Type | Amount |\n"
+                + "| 20230601 | 20230601-01 | D    | 150.00 |\n"
+                + "| 20230626 | 20230626-01 | W    |  20.50 |\n\n";
+        assertEquals(expected, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void largeOutputSpansManyBufferFlushes() throws Exception {
+        Path file = tempDir.resolve("statements").resolve("AC001.txt");
+        int lines = 10_000;
+        try (StatementRenderer renderer = StatementRenderer.toDirectory(tempDir.resolve("statements"), "AC001")) {
+            renderer.writeStatementHeader("AC001");
+            for (int i = 0; i < lines; i++) {
+                renderer.accept(new Statement("20230601", "20230601-" + i, "D", i, i * 3L));
+            }
+        }
+
+        assertEquals(lines + 2, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void directoryFileNamesCannotEscapeTheDirectory() throws Exception {
+        Path directory = tempDir.resolve("statements");
+        for (String name : new String[] {"../../escaped", "a/b", "AC001"}) {
+            try (StatementRenderer renderer = StatementRenderer.toDirectory(directory, name)) {
+                renderer.writeStatementHeader(name);
+            }
+        }
+
+        assertTrue(Files.exists(directory.resolve("%2E%2E%2F%2E%2E%2Fescaped.txt")));
+        assertTrue(Files.exists(directory.resolve("a%2Fb.txt")));
+        assertTrue(Files.exists(directory.resolve("AC001.txt")));
+        assertFalse(Files.exists(tempDir.getParent().resolve("escaped.txt")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import com.awesome.gic.services.TransactionIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionIdGeneratorTest {
+
+    private TransactionIdGenerator idGenerator;
+
+    @BeforeEach
+    public void setUp() {
+        idGenerator = new TransactionIdGenerator();
+    }
+
+    @Test
+    public void testNextIdNumbersPerDay() {
+        LocalDate date = LocalDate.of(2025, 4, 13);
+
+        assertEquals("20250413-01", idGenerator.nextId(date));
+        assertEquals("20250413-02", idGenerator.nextId(date));
+        assertEquals("20250414-01", idGenerator.nextId(date.plusDays(1)));
+        assertEquals(2, idGenerator.getCount(date));
+        assertEquals(0, idGenerator.getCount(date.plusDays(2)));
+    }
+
+    @Test
+    public void testReleaseSequencesOnlyGivesBackTheLatestBlock() {
+        LocalDate date = LocalDate.of(2025, 4, 13);
+
+        assertEquals(1, idGenerator.reserveSequences(date, 5));
+        assertTrue(idGenerator.releaseSequences(date, 3, 5));
+        assertEquals("20250413-03", idGenerator.nextId(date));
+
+        assertEquals(4, idGenerator.reserveSequences(date, 3));
+        idGenerator.nextId(date);
+        // 07 is already handed out, so 05 and 06 cannot be given back
+        assertFalse(idGenerator.releaseSequences(date, 5, 6));
+        assertEquals(7, idGenerator.getCount(date));
+    }
+
+    @Test
+    public void testFormatIdBeyondTwoDigits() {
+        LocalDate date = LocalDate.of(987, 1, 2);
+
+        assertEquals("09870102-09", TransactionIdGenerator.formatId(date, 9));
+        assertEquals("09870102-100", TransactionIdGenerator.formatId(date, 100));
+        assertEquals("09870102-12345", TransactionIdGenerator.formatId(date, 12345));
+    }
+
+    @Test
+    public void testReserveSequences() {
+        LocalDate date = LocalDate.of(2025, 4, 13);
+        idGenerator.nextId(date);
+
+        // Verify the block starts after the IDs already handed out and is skipped afterwards
+        assertEquals(2, idGenerator.reserveSequences(date, 10));
+        assertEquals(11, idGenerator.getCount(date));
+        assertEquals("20250413-12", idGenerator.nextId(date));
+
+        assertThrows(IllegalArgumentException.class, () -> idGenerator.reserveSequences(date, 0));
+    }
+
+    @Test
+    public void testConcurrentIdsAreUnique() throws Exception {
+        LocalDate date = LocalDate.of(2025, 4, 13);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    ids.add(idGenerator.nextId(date));
+                }
+                return ids;
+            }));
+        }
+
+        Set<String> allIds = new HashSet<>();
+        for (Future<List<String>> result : results) {
+            allIds.addAll(result.get());
+        }
+        executor.shutdown();
+
+        assertEquals(8000, allIds.size());
+        assertEquals(8000, idGenerator.getCount(date));
+    }
+}
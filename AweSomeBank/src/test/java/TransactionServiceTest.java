@@ -1,8 +1,10 @@
 import com.awesome.gic.interfaces.InterestRuleService;
 import com.awesome.gic.models.Account;
+import com.awesome.gic.models.ImportResult;
 import com.awesome.gic.models.Statement;
 import com.awesome.gic.models.Transaction;
 import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.services.AccountServiceImpl;
 import com.awesome.gic.services.InterestRuleServiceImpl;
 import com.awesome.gic.services.TransactionServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,8 +17,15 @@ import static org.mockito.Mockito.when;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import com.awesome.gic.interfaces.AccountService;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -84,6 +93,29 @@ public class TransactionServiceTest {
         assertEquals(200.0 - amount, account.getBalance()); //check the balance
     }
 
+    @Test
+    void createTransaction_backDatedWithdrawal_checksLaterBalances() throws Exception {
+        Account account = new Account("AC001");
+        when(accountService.getAccount("AC001")).thenReturn(account);
+        transactionService.createTransaction("20230601", "AC001", "D", 100.0);
+        transactionService.createTransaction("20230610", "AC001", "W", 80.0);
+        transactionService.createTransaction("20230620", "AC001", "D", 500.0);
+
+        // The current balance covers it, but June 10 would end at -30.00
+        Exception exception = assertThrows(Exception.class, () ->
+                transactionService.createTransaction("20230605", "AC001", "W", 50.0));
+        assertEquals("Withdrawal would make a later balance negative", exception.getMessage());
+        // Before any deposit the balance would be negative on the day itself
+        exception = assertThrows(Exception.class, () ->
+                transactionService.createTransaction("20230531", "AC001", "W", 1.0));
+        assertEquals("Withdrawal would make a later balance negative", exception.getMessage());
+
+        transactionService.createTransaction("20230605", "AC001", "W", 20.0);
+        assertEquals(0, account.getBalanceCentsAsOf(LocalDate.of(2023, 6, 10)));
+        transactionService.createTransaction("20230620", "AC001", "W", 500.0);
+        assertEquals(0, account.getBalanceCents());
+    }
+
     @Test
     void createTransaction_newAccount_shouldCreateAccountAndTransaction() throws Exception {
         String accountId = "NEW001";
@@ -135,6 +167,119 @@ public class TransactionServiceTest {
         assertThrows(Exception.class, () -> transactionService.createTransaction("20250413", accountId, "W", 100.0));
     }
 
+    @Test
+    void createTransaction_concurrentWithdrawals_shouldNotOverdraw() throws Exception {
+        AccountService realAccountService = new AccountServiceImpl();
+        TransactionServiceImpl service = new TransactionServiceImpl(realAccountService, interestRuleServiceUnderTest);
+        service.createTransaction("20250401", "AC001", "D", 100.0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(executor.submit(() -> {
+                try {
+                    service.createTransaction("20250402", "AC001", "W", 1.0);
+                    return true;
+                } catch (Exception e) {
+                    return false;
+                }
+            }));
+        }
+
+        int succeeded = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        executor.shutdown();
+
+        // Exactly the deposited amount can be withdrawn, each posting with its own ID
+        assertEquals(100, succeeded);
+        assertEquals(0.0, realAccountService.getAccount("AC001").getBalance());
+        assertEquals(100, service.getTransactionCount(LocalDate.of(2025, 4, 2)));
+    }
+
+    @Test
+    void importTransactions_shouldPostValidRecordsAndReportRejects() {
+        AccountService realAccountService = new AccountServiceImpl();
+        TransactionServiceImpl service = new TransactionServiceImpl(realAccountService, interestRuleServiceUnderTest);
+
+        List<String> records = Arrays.asList(
+                "20250401 AC001 D 100.00",
+                "",
+                "20250402 AC001 W 250.00",
+                "20250402 AC001 W 25.50",
+                "20250403 AC002 X 10",
+                "20250403 AC002 D",
+                "20250404  AC002   d   40");
+
+        ImportResult result = service.importTransactions(records.iterator());
+
+        assertEquals(3, result.getAcceptedCount());
+        assertEquals(3, result.getRejectedCount());
+        assertEquals(3, result.getRejections().get(0).getLineNumber());
+        assertEquals("Insufficient balance for withdrawal", result.getRejections().get(0).getReason());
+        assertEquals(5, result.getRejections().get(1).getLineNumber());
+        assertEquals(6, result.getRejections().get(2).getLineNumber());
+        assertEquals(74.5, realAccountService.getAccount("AC001").getBalance());
+        assertEquals(40.0, realAccountService.getAccount("AC002").getBalance());
+    }
+
+    @Test
+    void importTransactions_shouldNumberBatchesWithoutGapsAndCapRejections() {
+        AccountService realAccountService = new AccountServiceImpl();
+        TransactionServiceImpl service = new TransactionServiceImpl(realAccountService, interestRuleServiceUnderTest);
+
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            records.add("20250401 AC001 D 1");
+            records.add("20250401 AC001 W 0.50");
+            records.add("20250401 AC001 W 5000");
+            records.add("20250401 AC001 X 1");
+        }
+
+        ImportResult result = service.importTransactions(records.iterator());
+
+        assertEquals(6000, result.getAcceptedCount());
+        assertEquals(6000, result.getRejectedCount());
+        assertEquals(12000, result.getTotalCount());
+        assertEquals(ImportResult.MAX_REJECTIONS, result.getRejections().size());
+        assertEquals(3, result.getRejections().get(0).getLineNumber());
+        assertEquals(4, result.getRejections().get(1).getLineNumber());
+        assertEquals(1500.0, realAccountService.getAccount("AC001").getBalance());
+
+        // In posting order the IDs run 01, 02, ... with no holes left by the rejected records
+        List<Transaction> transactions = realAccountService.getAccount("AC001").getTransactions();
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(Transaction.formatId(LocalDate.of(2025, 4, 1), i + 1), transactions.get(i).getTransactionId());
+        }
+        assertEquals(6000, service.getTransactionCount(LocalDate.of(2025, 4, 1)));
+    }
+
+    @Test
+    void importTransactions_shouldNumberMixedRecordsInLineOrder() throws Exception {
+        AccountService realAccountService = new AccountServiceImpl();
+        TransactionServiceImpl service = new TransactionServiceImpl(realAccountService, interestRuleServiceUnderTest);
+        service.createTransaction("20250401", "AC001", "D", 100.0);
+
+        ImportResult result = service.importTransactions(Arrays.asList(
+                "20250402 AC001 W 10",
+                "20250402 AC001 W 500",
+                "20250402 AC001 D 5",
+                "20250402 AC001 W 1").iterator());
+
+        assertEquals(3, result.getAcceptedCount());
+        List<Transaction> transactions = realAccountService.getAccount("AC001").getTransactions();
+        assertEquals("20250402-01", transactions.get(1).getTransactionId());
+        assertEquals("W", transactions.get(1).getType());
+        assertEquals("20250402-02", transactions.get(2).getTransactionId());
+        assertEquals("D", transactions.get(2).getType());
+        assertEquals("20250402-03", transactions.get(3).getTransactionId());
+        // The ID reserved for the rejected withdrawal was given back
+        assertEquals("20250402-04", service.generateTransactionId(LocalDate.of(2025, 4, 2)));
+    }
+
     @Test
     void generateTransactionId_shouldGenerateUniqueId() throws Exception {
         LocalDate date = LocalDate.of(2025, 4, 13);
@@ -203,6 +348,137 @@ public class TransactionServiceTest {
         assertEquals("I", statement.get(2).getType());
     }
 
+    @Test
+    void getMonthlyInterest_withRuleChangesWithinMonth() throws Exception {
+        interestRuleServiceUnderTest.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleServiceUnderTest.addInterestRule("20230520", "RULE02", 1.90);
+        interestRuleServiceUnderTest.addInterestRule("20230615", "RULE03", 2.20);
+        TransactionServiceImpl service = new TransactionServiceImpl(accountService, interestRuleServiceUnderTest);
+
+        Account account = new Account("AC001");
+        account.addTransaction(new Transaction(LocalDate.of(2023, 5, 5), "20230505-01", "D", 100.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 1), "20230601-01", "D", 150.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 26), "20230626-01", "W", 20.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 26), "20230626-02", "W", 100.0));
+
+        // 250 x 1.90% x 14 days + 250 x 2.20% x 11 days + 130 x 2.20% x 5 days
+        assertEquals(39, service.getMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30)));
+    }
+
+    @Test
+    void balanceAsOf_readsEndOfDayBalances() throws Exception {
+        Account account = new Account("AC001");
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 26), "20230626-01", "W", 20.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 1), "20230601-01", "D", 150.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 26), "20230626-02", "D", 5.5));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 30), "20230630-01", "I", 0.25));
+        when(accountService.getAccount("AC001")).thenReturn(account);
+
+        assertEquals(0, transactionService.balanceAsOf("AC001", "20230531"));
+        assertEquals(15000, transactionService.balanceAsOf("AC001", "20230601"));
+        assertEquals(15000, transactionService.balanceAsOf("AC001", "20230625"));
+        assertEquals(13550, transactionService.balanceAsOf("AC001", "20230626"));
+        assertEquals(13575, transactionService.balanceAsOf("AC001", "20230630"));
+        assertEquals(13575, transactionService.balanceAsOf("AC001", "20240101"));
+
+        Exception exception = assertThrows(Exception.class, () -> transactionService.balanceAsOf("AC002", "20230601"));
+        assertEquals("Account AC002 not found", exception.getMessage());
+        exception = assertThrows(Exception.class, () -> transactionService.balanceAsOf("AC001", "20230631"));
+        assertEquals("Invalid date format. Please use YYYYMMdd", exception.getMessage());
+    }
+
+    @Test
+    void getMonthlyInterest_creditsInterestPostingsFromNextDay() throws Exception {
+        interestRuleServiceUnderTest.addInterestRule("20230101", "RULE01", 3.65);
+        TransactionServiceImpl service = new TransactionServiceImpl(accountService, interestRuleServiceUnderTest);
+
+        Account account = new Account("AC001");
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 1), "20230601-01", "D", 1000.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 10), "20230610-01", "I", 1000.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 10), "20230610-02", "D", 1000.0));
+
+        // 1000 x 3.65% x 9 days + 2000 x 3.65% x 1 day + 3000 x 3.65% x 20 days
+        assertEquals(710, service.getMonthlyInterest(account, LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 30)));
+    }
+
+    @Test
+    void getInterestByMonth_matchesMonthlyInterestAcrossRange() throws Exception {
+        interestRuleServiceUnderTest.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleServiceUnderTest.addInterestRule("20230520", "RULE02", 1.90);
+        interestRuleServiceUnderTest.addInterestRule("20230615", "RULE03", 2.20);
+        TransactionServiceImpl service = new TransactionServiceImpl(accountService, interestRuleServiceUnderTest);
+
+        Account account = new Account("AC001");
+        account.addTransaction(new Transaction(LocalDate.of(2023, 1, 10), "20230110-01", "D", 500.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 5, 5), "20230505-01", "D", 100.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 26), "20230626-01", "W", 120.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 9, 1), "20230901-01", "D", 80.0));
+        // Close May so its interest earns from June on
+        service.postMonthlyInterest(account, LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31));
+
+        SortedMap<YearMonth, Long> interestByMonth =
+                service.getInterestByMonth(account, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+
+        assertEquals(12, interestByMonth.size());
+        for (YearMonth month = YearMonth.of(2023, 1); !month.isAfter(YearMonth.of(2023, 12)); month = month.plusMonths(1)) {
+            assertEquals(service.getMonthlyInterest(account, month.atDay(1), month.atEndOfMonth()), interestByMonth.get(month));
+        }
+
+        // Partial months at both ends only count the days inside the range
+        interestByMonth = service.getInterestByMonth(account, LocalDate.of(2023, 6, 20), LocalDate.of(2023, 7, 10));
+        assertEquals(service.getMonthlyInterest(account, LocalDate.of(2023, 6, 20), LocalDate.of(2023, 6, 30)),
+                interestByMonth.get(YearMonth.of(2023, 6)));
+        assertEquals(service.getMonthlyInterest(account, LocalDate.of(2023, 7, 1), LocalDate.of(2023, 7, 10)),
+                interestByMonth.get(YearMonth.of(2023, 7)));
+        assertTrue(service.getInterestByMonth(account, LocalDate.of(2023, 7, 10), LocalDate.of(2023, 7, 1)).isEmpty());
+    }
+
+    @Test
+    void streamStatements_matchesMonthlyStatementsAcrossRange() throws Exception {
+        interestRuleServiceUnderTest.addInterestRule("20230101", "RULE01", 1.95);
+        interestRuleServiceUnderTest.addInterestRule("20230520", "RULE02", 1.90);
+        interestRuleServiceUnderTest.addInterestRule("20230615", "RULE03", 2.20);
+        TransactionServiceImpl service = new TransactionServiceImpl(accountService, interestRuleServiceUnderTest);
+
+        Account account = new Account("AC001");
+        account.addTransaction(new Transaction(LocalDate.of(2023, 3, 10), "20230310-01", "D", 500.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 5, 5), "20230505-01", "D", 100.0));
+        account.addTransaction(new Transaction(LocalDate.of(2023, 6, 26), "20230626-01", "W", 120.0));
+        when(accountService.getAccount("AC001")).thenReturn(account);
+        // Close May so its interest is a posted transaction
+        service.postMonthlyInterest(account, LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31));
+
+        List<Statement> expected = new ArrayList<>();
+        for (String month : Arrays.asList("202304", "202305", "202306", "202307")) {
+            expected.addAll(service.generateMonthlyStatement("AC001", month));
+        }
+
+        List<Statement> streamed = new ArrayList<>();
+        service.streamStatements("AC001", "202304", "202307", streamed::add);
+
+        assertEquals(expected.size(), streamed.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), streamed.get(i).getDate());
+            assertEquals(expected.get(i).getTransactionId(), streamed.get(i).getTransactionId());
+            assertEquals(expected.get(i).getType(), streamed.get(i).getType());
+            assertEquals(expected.get(i).getAmountCents(), streamed.get(i).getAmountCents());
+            assertEquals(expected.get(i).getBalanceCents(), streamed.get(i).getBalanceCents());
+        }
+        // April interest, May transactions and posted interest, June transaction and interest, July interest
+        assertEquals(6, streamed.size());
+    }
+
+    @Test
+    void streamStatements_invalidRange() {
+        Exception exception = assertThrows(Exception.class, () ->
+                transactionService.streamStatements("AC001", "202306", "202305", line -> { }));
+        assertEquals("Start month should not be after end month", exception.getMessage());
+
+        exception = assertThrows(Exception.class, () ->
+                transactionService.streamStatements("AC001", "202313", "202401", line -> { }));
+        assertEquals("Year and month should be in YYYYMM format", exception.getMessage());
+    }
+
     @Test
     void calculateBalanceAtStartOfMonth_noTransactionsBeforeMonth() {
         Account account = new Account("AC001");
@@ -0,0 +1,163 @@
+import com.awesome.gic.interfaces.LedgerListener;
+import com.awesome.gic.models.Account;
+import com.awesome.gic.models.InterestRule;
+import com.awesome.gic.models.Transaction;
+import com.awesome.gic.models.Transfer;
+import com.awesome.gic.services.AccountServiceImpl;
+import com.awesome.gic.services.InterestRuleServiceImpl;
+import com.awesome.gic.services.TransactionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransferTest {
+    private AccountServiceImpl accountService;
+    private TransactionServiceImpl transactionService;
+
+    @BeforeEach
+    void setUp() {
+        accountService = new AccountServiceImpl();
+        transactionService = new TransactionServiceImpl(accountService, new InterestRuleServiceImpl());
+    }
+
+    @Test
+    void createTransfer_postsLinkedLegsAndNotifiesListeners() throws Exception {
+        List<String> posted = new ArrayList<>();
+        transactionService.addLedgerListener(new LedgerListener() {
+            @Override
+            public void transactionPosted(String accountId, Transaction transaction) {
+                posted.add(accountId + " " + transaction.getTransactionId() + " " + transaction.getType());
+            }
+
+            @Override
+            public void interestRuleAdded(InterestRule rule) {
+            }
+        });
+        transactionService.createTransaction("20230601", "AC001", "D", 100.0);
+
+        Transfer transfer = transactionService.createTransfer("20230601", "AC001", "AC002", 25.5);
+
+        assertEquals("20230601-02", transfer.getDebit().getTransactionId());
+        assertEquals("20230601-03", transfer.getCredit().getTransactionId());
+        assertEquals(7450, accountService.getAccount("AC001").getBalanceCents());
+        assertEquals(2550, accountService.getAccount("AC002").getBalanceCents());
+        assertEquals("AC001 20230601-02 W", posted.get(1));
+        assertEquals("AC002 20230601-03 D", posted.get(2));
+        assertSame(transfer, transactionService.getTransfer("20230601-02"));
+        assertSame(transfer, transactionService.getTransfer("20230601-03"));
+        assertNull(transactionService.getTransfer("20230601-01"));
+        assertEquals(1, transactionService.getTransfers().size());
+    }
+
+    @Test
+    void createTransfer_rejectsWithoutPostingEitherLeg() throws Exception {
+        transactionService.createTransaction("20230601", "AC001", "D", 100.0);
+        transactionService.createTransaction("20230610", "AC001", "W", 80.0);
+        transactionService.createTransaction("20230620", "AC001", "D", 100.0);
+
+        Exception exception = assertThrows(Exception.class, () ->
+                transactionService.createTransfer("20230601", "AC001", "AC002", 150.0));
+        assertEquals("Insufficient balance for withdrawal", exception.getMessage());
+        // Back-dated so that June 10 would go negative
+        exception = assertThrows(Exception.class, () ->
+                transactionService.createTransfer("20230605", "AC001", "AC002", 20.01));
+        assertEquals("Withdrawal would make a later balance negative", exception.getMessage());
+        exception = assertThrows(Exception.class, () ->
+                transactionService.createTransfer("20230601", "AC001", "AC001", 1.0));
+        assertEquals("Cannot transfer to the same account", exception.getMessage());
+        exception = assertThrows(Exception.class, () ->
+                transactionService.createTransfer("20230601", "AC009", "AC001", 1.0));
+        assertEquals("Account AC009 not found", exception.getMessage());
+
+        assertEquals(3, accountService.getAccount("AC001").getTransactionCount());
+        // A rejected transfer does not create its target account
+        assertNull(accountService.getAccount("AC002"));
+    }
+
+    @Test
+    void createTransfer_concurrentOppositeTransfersConserveMoney() throws Exception {
+        String[] accounts = {"AC001", "AC002", "AC003", "AC004"};
+        for (String accountId : accounts) {
+            transactionService.createTransaction("20230601", accountId, "D", 1000.0);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    // Pairs overlap and run in both directions, which deadlocks without lock ordering
+                    String from = accounts[(thread + i) % accounts.length];
+                    String to = accounts[(thread + i + 1 + thread % 2) % accounts.length];
+                    try {
+                        transactionService.createTransfer("20230602", from, to, 1.0 + i % 7);
+                    } catch (Exception e) {
+                        // An emptied account rejects the transfer; neither leg posts
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (String accountId : accounts) {
+            long balance = accountService.getAccount(accountId).getBalanceCents();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(400000, total);
+    }
+
+    @Test
+    void createTransfer_concurrentTransfersIntoNewAccountsConserveMoney() throws Exception {
+        transactionService.createTransaction("20230601", "AC001", "D", 1000.0);
+        transactionService.createTransaction("20230601", "AC002", "D", 1000.0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    // Targets are created mid-run while other threads already transfer out of them
+                    String existing = thread % 2 == 0 ? "AC001" : "AC002";
+                    String created = "NEW" + (i % 50);
+                    try {
+                        if (thread % 4 < 2) {
+                            transactionService.createTransfer("20230602", existing, created, 1.0);
+                        } else {
+                            transactionService.createTransfer("20230602", created, existing, 1.0);
+                        }
+                    } catch (Exception e) {
+                        // Not created yet, or emptied
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        long total = 0;
+        for (Account account : accountService.getAllAccounts()) {
+            assertTrue(account.getBalanceCents() >= 0);
+            total += account.getBalanceCents();
+        }
+        assertEquals(200000, total);
+    }
+}